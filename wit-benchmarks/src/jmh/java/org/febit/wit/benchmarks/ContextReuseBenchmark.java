@@ -0,0 +1,82 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks;
+
+import org.febit.wit.Engine;
+import org.febit.wit.PreparedVars;
+import org.febit.wit.Template;
+import org.febit.wit.benchmarks.model.Address;
+import org.febit.wit.benchmarks.model.Customer;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.Out;
+import org.febit.wit.io.impl.OutputStreamOut;
+import org.febit.wit.util.InternedEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link Template#render(org.febit.wit.Vars, Out)}, with or without reusing contexts.
+ * <p>
+ * Run with {@code -prof gc}, {@code gc.alloc.rate.norm} is expected to be about zero bytes per merge of
+ * {@code plain.wit} if contexts are reused, since params are prepared, and outputs are discarded by a reused out.
+ *
+ * @author zqq90
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContextReuseBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+
+        @Override
+        public void write(int b) {
+            // discard
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            // discard
+        }
+    };
+
+    @Param({"true", "false"})
+    private String reuseContext;
+
+    @Param({Engine.COMPILE_MODE_INTERPRETED, Engine.COMPILE_MODE_BYTECODE})
+    private String compileMode;
+
+    private Template tmpl;
+    private PreparedVars.Values vars;
+    private Out out;
+
+    @Setup
+    public void setup() throws ResourceNotFoundException {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("engine.reuseContext", reuseContext);
+        params.put("engine.compileMode", compileMode);
+        final Engine engine = Engine.create("/wit-benchmarks.wim", params);
+        this.tmpl = engine.getTemplate("plain.wit");
+        this.vars = PreparedVars.of("title", "user")
+                .bind("Plain", new Customer("Wit", new Address("Beijing", "Street No.0")));
+        this.out = new OutputStreamOut(DISCARD, InternedEncoding.UTF_8, engine);
+        // fail fast on broken templates, and parse before measurement
+        render();
+    }
+
+    @Benchmark
+    public Out render() {
+        tmpl.render(vars, out);
+        return out;
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks;
+
+import org.febit.wit.io.Buffers;
+import org.febit.wit.io.charset.Encoder;
+import org.febit.wit.io.charset.impl.DefaultEncoder;
+import org.febit.wit.io.charset.impl.Utf8Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of encoding strings to UTF-8, {@link Utf8Encoder} against {@link DefaultEncoder} and the JDK
+ * {@link CharsetEncoder}.
+ *
+ * @author zqq90
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EncoderBenchmark {
+
+    @Param({"ascii", "mixed"})
+    private String content;
+
+    @Param({"16", "256", "4096"})
+    private int length;
+
+    private String string;
+    private Encoder utf8Encoder;
+    private Encoder defaultEncoder;
+    private CharsetEncoder charsetEncoder;
+    private ByteBuffer byteBuffer;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() {
+        final String unit = "ascii".equals(content)
+                ? "<td class=\"id\">item-1024</td>"
+                : "<td class=\"name\">名称-1024</td>";
+        final StringBuilder buf = new StringBuilder(length + unit.length());
+        while (buf.length() < length) {
+            buf.append(unit);
+        }
+        this.string = buf.substring(0, length);
+        this.utf8Encoder = new Utf8Encoder(Buffers.getNormalPeers());
+        this.defaultEncoder = new DefaultEncoder("UTF-8", Buffers.getNormalPeers());
+        this.charsetEncoder = StandardCharsets.UTF_8.newEncoder();
+        this.byteBuffer = ByteBuffer.allocate(length * 3);
+        this.out = new ByteArrayOutputStream(length * 3);
+    }
+
+    @Benchmark
+    public int utf8Encoder() throws IOException {
+        out.reset();
+        utf8Encoder.write(string, 0, length, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int defaultEncoder() throws IOException {
+        out.reset();
+        defaultEncoder.write(string, 0, length, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int charsetEncoder() {
+        out.reset();
+        byteBuffer.clear();
+        charsetEncoder.reset()
+                .encode(CharBuffer.wrap(string), byteBuffer, true);
+        charsetEncoder.flush(byteBuffer);
+        out.write(byteBuffer.array(), 0, byteBuffer.position());
+        return out.size();
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks;
+
+import org.febit.wit.Context;
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.Vars;
+import org.febit.wit.benchmarks.model.Models;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end benchmarks of {@link Template#merge(Vars, org.febit.wit.io.Out)}.
+ * <p>
+ * {@code throughput} reports ops/s, {@code latency} reports the sampled percentiles (p99 etc.),
+ * run with {@code -prof gc} (enabled by default in the gradle task) for allocation rates per merge.
+ *
+ * @author zqq90
+ */
+@State(Scope.Benchmark)
+public class MergeBenchmark {
+
+    @Param({"page.wit", "plain.wit"})
+    private String template;
+
+    @Param({"stream", "writer"})
+    private String out;
+
+    @Param({"simpleTextStatement", "byteArrayTextStatement", "charArrayTextStatement"})
+    private String textStatement;
+
+    @Param({Engine.COMPILE_MODE_INTERPRETED, Engine.COMPILE_MODE_BYTECODE})
+    private String compileMode;
+
+    @Param({"50"})
+    private int size;
+
+    private Template tmpl;
+    private Vars vars;
+    private boolean byteStream;
+    private ByteArrayOutputStream outputStream;
+    private CharArrayWriter writer;
+
+    public static Engine createEngine(String textStatement, String compileMode) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("textStatement.@class", textStatement);
+        params.put("engine.compileMode", compileMode);
+        return Engine.create("/wit-benchmarks.wim", params);
+    }
+
+    @Setup
+    public void setup() throws ResourceNotFoundException {
+        this.tmpl = createEngine(textStatement, compileMode).getTemplate(template);
+        this.vars = Models.vars(size);
+        this.byteStream = "stream".equals(out);
+        this.outputStream = new ByteArrayOutputStream(1 << 16);
+        this.writer = new CharArrayWriter(1 << 16);
+        // fail fast on broken templates, and parse before measurement
+        merge();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Context throughput() {
+        return merge();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Context latency() {
+        return merge();
+    }
+
+    private Context merge() {
+        if (byteStream) {
+            outputStream.reset();
+            return tmpl.merge(vars, outputStream);
+        }
+        writer.reset();
+        return tmpl.merge(vars, writer);
+    }
+}
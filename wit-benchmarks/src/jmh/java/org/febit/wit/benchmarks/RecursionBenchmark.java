@@ -0,0 +1,58 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks;
+
+import org.febit.wit.Engine;
+import org.febit.wit.PreparedVars;
+import org.febit.wit.Template;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of recursive functions, with closures declared in each call.
+ * <p>
+ * Run with {@code -prof gc}, {@code gc.alloc.rate.norm} is expected to grow linearly with the depth, since
+ * sub-contexts share the scopes of the declaring context, nothing is copied by the depth of calls.
+ *
+ * @author zqq90
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecursionBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int depth;
+
+    @Param({Engine.COMPILE_MODE_INTERPRETED, Engine.COMPILE_MODE_BYTECODE})
+    private String compileMode;
+
+    private Template tmpl;
+    private PreparedVars.Values vars;
+
+    @Setup
+    public void setup() throws ResourceNotFoundException {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("engine.compileMode", compileMode);
+        final Engine engine = Engine.create("/wit-benchmarks.wim", params);
+        this.tmpl = engine.getTemplate("tree.wit");
+        this.vars = PreparedVars.of("depth").bind(depth);
+        // fail fast on broken templates, and parse before measurement
+        render();
+    }
+
+    @Benchmark
+    public String render() {
+        return tmpl.mergeToString(vars);
+    }
+}
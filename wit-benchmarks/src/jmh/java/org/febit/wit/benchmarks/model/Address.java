@@ -0,0 +1,24 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks.model;
+
+/**
+ * @author zqq90
+ */
+public class Address {
+
+    private final String city;
+    private final String street;
+
+    public Address(String city, String street) {
+        this.city = city;
+        this.street = street;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+}
@@ -0,0 +1,24 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks.model;
+
+/**
+ * @author zqq90
+ */
+public class Customer {
+
+    private final String name;
+    private final Address address;
+
+    public Customer(String name, Address address) {
+        this.name = name;
+        this.address = address;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+}
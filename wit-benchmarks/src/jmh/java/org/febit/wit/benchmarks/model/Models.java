@@ -0,0 +1,48 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks.model;
+
+import org.febit.wit.Vars;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed data set, the same for every run.
+ *
+ * @author zqq90
+ */
+public class Models {
+
+    private static final String[] CITIES = {"Beijing", "Shanghai", "Hangzhou", "Shenzhen", "Chengdu"};
+    private static final String[] PRODUCTS = {"keyboard", "mouse", "monitor", "cable", "laptop", "headset"};
+
+    private Models() {
+    }
+
+    public static List<Order> orders(int size) {
+        final Random random = new Random(9527);
+        final List<Order> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Address address = new Address(CITIES[random.nextInt(CITIES.length)], "Street No." + i);
+            final Customer customer = new Customer("Customer-" + i, address);
+            final int itemCount = 1 + random.nextInt(4);
+            final List<Item> items = new ArrayList<>(itemCount);
+            for (int j = 0; j < itemCount; j++) {
+                items.add(new Item(PRODUCTS[random.nextInt(PRODUCTS.length)],
+                        100 + random.nextInt(100000), 1 + random.nextInt(5)));
+            }
+            orders.add(new Order(100000L + i, random.nextInt(4), customer, items));
+        }
+        return Collections.unmodifiableList(orders);
+    }
+
+    public static Vars vars(int size) {
+        return Vars.of(new String[]{"title", "orders", "user"}, new Object[]{
+                "Order List",
+                orders(size),
+                new Customer("Wit", new Address("Beijing", "Street No.0"))
+        });
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.benchmarks.model;
+
+import java.util.List;
+
+/**
+ * @author zqq90
+ */
+public class Order {
+
+    private final long id;
+    private final int status;
+    private final Customer customer;
+    private final List<Item> items;
+
+    public Order(long id, int status, Customer customer, List<Item> items) {
+        this.id = id;
+        this.status = status;
+        this.customer = customer;
+        this.items = items;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+}
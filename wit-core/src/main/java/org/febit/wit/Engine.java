@@ -2,10 +2,12 @@
 package org.febit.wit;
 
 import lombok.Getter;
+import org.febit.wit.cache.AstCache;
 import org.febit.wit.core.NativeFactory;
 import org.febit.wit.exceptions.IllegalConfigException;
 import org.febit.wit.exceptions.ResourceNotFoundException;
 import org.febit.wit.global.GlobalManager;
+import org.febit.wit.io.BufferPool;
 import org.febit.wit.io.charset.CoderFactory;
 import org.febit.wit.loaders.Loader;
 import org.febit.wit.loggers.Logger;
@@ -17,8 +19,14 @@ import org.febit.wit.util.PropsUtil;
 import org.febit.wit.util.StringUtil;
 
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Script engine.
@@ -32,6 +40,20 @@ public class Engine {
 
     public static final String DEFAULT_WIM = "/wit-default.wim";
 
+    /**
+     * Templates are executed by walking the AST.
+     */
+    public static final String COMPILE_MODE_INTERPRETED = "interpreted";
+    /**
+     * Templates are compiled to JVM bytecode after parsed.
+     */
+    public static final String COMPILE_MODE_BYTECODE = "bytecode";
+    /**
+     * Templates are interpreted, and compiled to JVM bytecode in background once merged {@code compileThreshold}
+     * times.
+     */
+    public static final String COMPILE_MODE_TIERED = "tiered";
+
     protected final ConcurrentMap<String, Template> cachedTemplates = new ConcurrentHashMap<>();
 
     @Getter
@@ -44,6 +66,28 @@ public class Engine {
     protected boolean looseSemicolon = true;
     @Getter
     protected InternedEncoding encoding;
+    @Getter
+    protected String compileMode = COMPILE_MODE_INTERPRETED;
+    @Getter
+    protected int compileThreshold = 1000;
+    @Getter
+    protected int compilerThreads = 1;
+    @Getter
+    protected int outChunkSize;
+    @Getter
+    protected boolean outFlush;
+    /**
+     * Reuse contexts of merges those not return contexts, such as {@link Template#mergeToBytes(Vars)}.
+     */
+    @Getter
+    protected boolean reuseContext;
+    /**
+     * Escaper of interpolations, such as "html", "xml", "js", none by default.
+     *
+     * @see org.febit.wit.io.Escaper
+     */
+    @Getter
+    protected String escape;
 
     protected String inits;
     protected String vars;
@@ -51,6 +95,8 @@ public class Engine {
     protected Petite petite;
     protected Loader loader;
 
+    private volatile ExecutorService compilerExecutor;
+
     @Getter
     protected Logger logger;
     @Getter
@@ -58,9 +104,13 @@ public class Engine {
     @Getter
     protected CoderFactory coderFactory;
     @Getter
+    protected BufferPool bufferPool;
+    @Getter
     protected NativeFactory nativeFactory;
     @Getter
     protected ResolverManager resolverManager;
+    @Getter
+    protected AstCache astCache;
 
     protected void executeInits() throws ResourceNotFoundException {
         if (this.inits == null) {
@@ -177,6 +227,64 @@ public class Engine {
         this.petite.inject(key, bean);
     }
 
+    /**
+     * If templates should be compiled to JVM bytecode.
+     *
+     * @return true if compile mode is bytecode
+     * @since 2.8.0
+     */
+    public boolean isBytecodeCompileMode() {
+        return COMPILE_MODE_BYTECODE.equals(compileMode);
+    }
+
+    /**
+     * If templates should be compiled to JVM bytecode once they are hot.
+     *
+     * @return true if compile mode is tiered
+     * @since 2.8.0
+     */
+    public boolean isTieredCompileMode() {
+        return COMPILE_MODE_TIERED.equals(compileMode);
+    }
+
+    /**
+     * Get execution tiers of cached templates.
+     *
+     * @return template name to tier
+     * @since 2.8.0
+     */
+    public Map<String, Template.Tier> getTemplateTiers() {
+        final Map<String, Template.Tier> tiers = new TreeMap<>();
+        this.cachedTemplates.forEach((name, template) -> tiers.put(name, template.getTier()));
+        return tiers;
+    }
+
+    void executeCompileTask(Runnable task) {
+        ExecutorService executor = this.compilerExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.compilerExecutor;
+                if (executor == null) {
+                    executor = createCompilerExecutor();
+                    this.compilerExecutor = executor;
+                }
+            }
+        }
+        executor.execute(task);
+    }
+
+    protected ExecutorService createCompilerExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(compilerThreads, compilerThreads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "wit-compiler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public String[] getVars() {
         return StringUtil.toArray(vars);
     }
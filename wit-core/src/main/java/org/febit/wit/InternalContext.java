@@ -7,17 +7,22 @@ import org.febit.wit.core.LoopInfo;
 import org.febit.wit.core.VariantIndexer;
 import org.febit.wit.exceptions.NotFunctionException;
 import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.io.Escaper;
 import org.febit.wit.io.Out;
+import org.febit.wit.io.impl.EscapingOut;
 import org.febit.wit.lang.MethodDeclare;
 import org.febit.wit.resolvers.GetResolver;
 import org.febit.wit.resolvers.OutResolver;
+import org.febit.wit.resolvers.PropertyGetter;
 import org.febit.wit.resolvers.ResolverManager;
 import org.febit.wit.resolvers.SetResolver;
 import org.febit.wit.util.ClassMap;
 import org.febit.wit.util.InternedEncoding;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.BiConsumer;
 
 /**
@@ -32,6 +37,9 @@ import java.util.function.BiConsumer;
 })
 public final class InternalContext implements Context {
 
+    private static final AtomicIntegerFieldUpdater<InternalContext> CAPTURES
+            = AtomicIntegerFieldUpdater.newUpdater(InternalContext.class, "captures");
+
     @Getter
     private final Template template;
 
@@ -39,7 +47,7 @@ public final class InternalContext implements Context {
      * params for this context.
      */
     @Getter
-    private final Vars rootParams;
+    private Vars rootParams;
 
     /**
      * Variables in this scope.
@@ -47,6 +55,9 @@ public final class InternalContext implements Context {
     public final Object[] vars;
     /**
      * Parent scopes's variables, if this's a sub-context.
+     * <p>
+     * It's a display of lexical scopes, the depth is resolved by the parser, so accessed in O(1). Shared by all
+     * sub-contexts of the same declaring context, never copied per call.
      */
     private final Object[][] parentScopes;
     /**
@@ -56,11 +67,17 @@ public final class InternalContext implements Context {
     /**
      * If this.write is a bytes stream.
      */
-    public final boolean isByteStream;
+    @SuppressWarnings({
+            "squid:ClassVariableVisibilityCheck"
+    })
+    public boolean isByteStream;
     /**
      * Output's charset.
      */
-    public final InternedEncoding encoding;
+    @SuppressWarnings({
+            "squid:ClassVariableVisibilityCheck"
+    })
+    public InternedEncoding encoding;
     /**
      * Index of current indexer.
      */
@@ -73,6 +90,10 @@ public final class InternalContext implements Context {
      * Output, stream or writer.
      */
     private Out out;
+    /**
+     * Reused for escaped outputs, created when first used.
+     */
+    private EscapingOut escapingOut;
 
     /**
      * Used by functions, store value to be returned.
@@ -96,6 +117,20 @@ public final class InternalContext implements Context {
      * context to get locals, may not the root context.
      */
     private InternalContext localContext;
+    /**
+     * Root context of this merge, this if created by the template.
+     */
+    private InternalContext rootContext;
+    /**
+     * Scopes of sub-contexts, created when first used.
+     */
+    private Object[][] childScopes;
+    /**
+     * Count of closures those captured variables, only counted on the root context.
+     * <p>
+     * Updated atomically, since root contexts of init templates are shared by merges of all threads.
+     */
+    private volatile int captures;
 
     private final ResolverManager resolverManager;
     private final ClassMap<OutResolver> outers;
@@ -124,9 +159,101 @@ public final class InternalContext implements Context {
         this.indexer = 0;
         this.vars = new Object[varSize];
         this.parentScopes = parentScopes;
+        this.rootContext = this;
 
-        //import params
-        rootParams.exportTo(this::set);
+        importParams(rootParams);
+    }
+
+    private void importParams(final Vars rootParams) {
+        if (rootParams instanceof PreparedVars.Values) {
+            ((PreparedVars.Values) rootParams).fillTo(indexers[0], this.vars);
+        } else {
+            rootParams.exportTo(this::set);
+        }
+    }
+
+    /**
+     * Mark variables are captured by closures, then the root context will not be reused.
+     *
+     * @since 2.8.0
+     */
+    public void markCaptured() {
+        CAPTURES.incrementAndGet(this.rootContext);
+    }
+
+    /**
+     * Get count of closures created in this merge, to check if a context is captured during a call.
+     * <p>
+     * NOTICE: also counts closures of other threads, if the root context is shared, such as of init templates.
+     *
+     * @return count
+     * @since 2.8.0
+     */
+    public int getCaptureCount() {
+        return this.rootContext.captures;
+    }
+
+    /**
+     * If this context could be reused by another merge, that's a root context, and not captured by closures.
+     *
+     * @return if reusable
+     * @since 2.8.0
+     */
+    public boolean isReusable() {
+        return this.parentScopes == null
+                && this.rootContext == this
+                && this.captures == 0;
+    }
+
+    /**
+     * Clear all states of this context, nothing should be left to the next merge.
+     *
+     * @since 2.8.0
+     */
+    public void clear() {
+        Arrays.fill(this.vars, null);
+        this.rootParams = Vars.EMPTY;
+        this.out = null;
+        if (this.escapingOut != null) {
+            this.escapingOut.setOut(null);
+        }
+        this.indexer = 0;
+        this.returned = null;
+        this.label = 0;
+        this.loopType = 0;
+        this.locals = null;
+        this.localContext = null;
+    }
+
+    /**
+     * Reuse this cleared context for another merge.
+     *
+     * @param out        out
+     * @param rootParams root params
+     * @see #clear()
+     * @since 2.8.0
+     */
+    public void reuse(final Out out, final Vars rootParams) {
+        this.out = out;
+        this.encoding = out.getEncoding();
+        this.isByteStream = out.isByteStream();
+        this.rootParams = rootParams;
+        importParams(rootParams);
+    }
+
+    /**
+     * Reuse this cleared sub-context for another call.
+     *
+     * @param localContext local context
+     * @see #clear()
+     * @since 2.8.0
+     */
+    public void reuseSubContext(final InternalContext localContext) {
+        final Out myOut = localContext.out;
+        this.out = myOut;
+        this.encoding = myOut.getEncoding();
+        this.isByteStream = myOut.isByteStream();
+        this.localContext = localContext;
     }
 
     /**
@@ -138,9 +265,20 @@ public final class InternalContext implements Context {
      * @return a new sub context
      */
     public InternalContext createSubContext(VariantIndexer[] indexers, InternalContext localContext, int varSize) {
+        val newContext = new InternalContext(template, localContext.out, Vars.EMPTY,
+                indexers, varSize, getChildScopes());
+        newContext.localContext = localContext;
+        newContext.rootContext = this.rootContext;
+        return newContext;
+    }
+
+    private Object[][] getChildScopes() {
+        Object[][] scopes = this.childScopes;
+        if (scopes != null) {
+            return scopes;
+        }
         val myParentScopes = this.parentScopes;
-        //cal the new-context's parent-scopes
-        Object[][] scopes;
+        //cal the new-context's parent-scopes, never changed since vars are final
         if (myParentScopes == null) {
             scopes = new Object[][]{this.vars};
         } else {
@@ -148,11 +286,8 @@ public final class InternalContext implements Context {
             scopes[0] = this.vars;
             System.arraycopy(myParentScopes, 0, scopes, 1, myParentScopes.length);
         }
-
-        val newContext = new InternalContext(template, localContext.out, Vars.EMPTY,
-                indexers, varSize, scopes);
-        newContext.localContext = localContext;
-        return newContext;
+        this.childScopes = scopes;
+        return scopes;
     }
 
     /**
@@ -170,6 +305,7 @@ public final class InternalContext implements Context {
         val newContext = new InternalContext(template, this.out, rootParams,
                 indexers, varSize, null);
         newContext.localContext = this;
+        newContext.rootContext = this.rootContext;
         return newContext;
     }
 
@@ -255,6 +391,18 @@ public final class InternalContext implements Context {
         return this.loopType == 0;
     }
 
+    /**
+     * Resolve a getter of the given property, for beans exactly of the given type.
+     *
+     * @param type     bean type
+     * @param property property name
+     * @return getter
+     * @since 2.8.0
+     */
+    public PropertyGetter resolvePropertyGetter(final Class<?> type, final String property) {
+        return this.resolverManager.resolvePropertyGetter(type, property);
+    }
+
     /**
      * Get a bean's property.
      *
@@ -297,6 +445,16 @@ public final class InternalContext implements Context {
         this.out.write(bytes);
     }
 
+    /**
+     * Out bytes those will never be modified, such as pre-encoded texts.
+     *
+     * @param bytes bytes
+     * @since 2.8.0
+     */
+    public void outImmutable(final byte[] bytes) {
+        this.out.writeImmutable(bytes);
+    }
+
     public void outNotNull(final char[] chars) {
         this.out.write(chars);
     }
@@ -330,6 +488,42 @@ public final class InternalContext implements Context {
                 .render(this.out, obj);
     }
 
+    /**
+     * Write the object escaped.
+     *
+     * @param obj     object
+     * @param escaper escaper
+     * @since 2.8.0
+     */
+    public void writeEscaped(final Object obj, final Escaper escaper) {
+        if (obj == null) {
+            return;
+        }
+        final Out prevOut = this.out;
+        if (obj.getClass() == String.class) {
+            escaper.write(prevOut, (String) obj);
+            return;
+        }
+        if (prevOut instanceof EscapingOut && ((EscapingOut) prevOut).getEscaper() == escaper) {
+            // already escaping
+            write(obj);
+            return;
+        }
+        EscapingOut escapingOut = this.escapingOut;
+        if (escapingOut == null || escapingOut.getEscaper() != escaper) {
+            escapingOut = new EscapingOut(escaper, prevOut);
+            this.escapingOut = escapingOut;
+        } else {
+            escapingOut.setOut(prevOut);
+        }
+        this.out = escapingOut;
+        try {
+            write(obj);
+        } finally {
+            this.out = prevOut;
+        }
+    }
+
     @Override
     public Object getLocal(final Object name) {
         if (localContext != null) {
@@ -0,0 +1,194 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit;
+
+import org.febit.wit.core.VariantIndexer;
+
+import java.util.Arrays;
+
+/**
+ * Vars of fixed names, names are resolved to variant slots once per template version, values are filled by slots.
+ * <p>
+ * Usage:
+ * <pre>
+ * PreparedVars prepared = PreparedVars.of("user", "items");
+ * template.merge(prepared.bind(user, items), out);
+ * </pre>
+ * Instances of {@link PreparedVars} are thread-safe, could be shared by templates, slots are cached for a few
+ * recently used root indexers. {@link Values} are not thread-safe.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class PreparedVars {
+
+    /**
+     * Max count of cached slots, the eldest is dropped if full, such as templates are reloaded.
+     */
+    static final int MAX_CACHED_SLOTS = 8;
+    private static final Slots[] EMPTY_SLOTS = new Slots[0];
+
+    private final String[] names;
+    /**
+     * Slots resolved by root indexers, the latest first, copied on write.
+     */
+    private volatile Slots[] slots = EMPTY_SLOTS;
+
+    private PreparedVars(String[] names) {
+        this.names = names;
+    }
+
+    public static PreparedVars of(String... names) {
+        return new PreparedVars(names.clone());
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Get index of the name.
+     *
+     * @param name name
+     * @return index, -1 if not found
+     */
+    public int indexOf(final String name) {
+        final String[] myNames = this.names;
+        for (int i = 0, len = myNames.length; i < len; i++) {
+            if (myNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bind values by position.
+     *
+     * @param values values, in order of names
+     * @return vars
+     * @throws IllegalArgumentException if size of values not matched
+     */
+    public Values bind(Object... values) {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " values, but got " + values.length);
+        }
+        return new Values(this, values.clone());
+    }
+
+    /**
+     * Create empty values, could be reused by setting values.
+     *
+     * @return vars
+     */
+    public Values newValues() {
+        return new Values(this, new Object[names.length]);
+    }
+
+    int[] resolve(final VariantIndexer indexer) {
+        final Slots[] cached = this.slots;
+        for (Slots item : cached) {
+            if (item.indexer == indexer) {
+                return item.indexes;
+            }
+        }
+        final String[] myNames = this.names;
+        final int[] indexes = new int[myNames.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = indexer.getIndex(myNames[i]);
+        }
+        // updates may be lost by races, just resolved again
+        final Slots[] newSlots = new Slots[Math.min(cached.length + 1, MAX_CACHED_SLOTS)];
+        newSlots[0] = new Slots(indexer, indexes);
+        System.arraycopy(cached, 0, newSlots, 1, newSlots.length - 1);
+        this.slots = newSlots;
+        return indexes;
+    }
+
+    private static final class Slots {
+
+        final VariantIndexer indexer;
+        final int[] indexes;
+
+        Slots(VariantIndexer indexer, int[] indexes) {
+            this.indexer = indexer;
+            this.indexes = indexes;
+        }
+    }
+
+    /**
+     * Values of prepared vars.
+     * <p>
+     * NOTICE: Not thread safe.
+     */
+    public static final class Values implements Vars {
+
+        private final PreparedVars prepared;
+        private final Object[] values;
+
+        private Values(PreparedVars prepared, Object[] values) {
+            this.prepared = prepared;
+            this.values = values;
+        }
+
+        public Values set(int index, Object value) {
+            this.values[index] = value;
+            return this;
+        }
+
+        /**
+         * Set value by name.
+         *
+         * @param name  name
+         * @param value value
+         * @return this
+         * @throws IllegalArgumentException if name is not prepared
+         */
+        public Values set(String name, Object value) {
+            final int index = prepared.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Not prepared var: " + name);
+            }
+            this.values[index] = value;
+            return this;
+        }
+
+        public Object get(int index) {
+            return this.values[index];
+        }
+
+        public Values clear() {
+            Arrays.fill(this.values, null);
+            return this;
+        }
+
+        @Override
+        public void exportTo(final Accepter accepter) {
+            final String[] names = prepared.names;
+            final Object[] myValues = this.values;
+            for (int i = 0; i < myValues.length; i++) {
+                accepter.set(names[i], myValues[i]);
+            }
+        }
+
+        /**
+         * Fill values to variants by slots.
+         *
+         * @param indexer root indexer
+         * @param vars    variants
+         */
+        void fillTo(final VariantIndexer indexer, final Object[] vars) {
+            final int[] indexes = prepared.resolve(indexer);
+            final Object[] myValues = this.values;
+            for (int i = 0; i < indexes.length; i++) {
+                final int index = indexes[i];
+                if (index >= 0) {
+                    vars[index] = myValues[i];
+                }
+            }
+        }
+    }
+}
@@ -2,21 +2,30 @@
 package org.febit.wit;
 
 import lombok.val;
+import org.febit.wit.asm.AsmTemplateCompiler;
 import org.febit.wit.core.Parser;
 import org.febit.wit.core.ast.TemplateAST;
 import org.febit.wit.debug.BreakpointListener;
 import org.febit.wit.exceptions.ParseException;
 import org.febit.wit.exceptions.ScriptRuntimeException;
 import org.febit.wit.exceptions.TemplateException;
+import org.febit.wit.io.Buffers;
 import org.febit.wit.io.Out;
+import org.febit.wit.io.impl.ChannelOut;
+import org.febit.wit.io.impl.ChunkedOutputStream;
+import org.febit.wit.io.impl.ChunkedWriter;
 import org.febit.wit.io.impl.DiscardOut;
+import org.febit.wit.io.impl.FastByteArrayOutputStream;
+import org.febit.wit.io.impl.FastCharArrayWriter;
 import org.febit.wit.io.impl.OutputStreamOut;
 import org.febit.wit.io.impl.WriterOut;
 import org.febit.wit.loaders.Resource;
 import org.febit.wit.util.InternedEncoding;
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
 /**
@@ -24,11 +33,22 @@ import java.util.Map;
  */
 public class Template {
 
+    private static final int MIN_OUT_SIZE_HINT = 256;
+
     private final Engine engine;
     private final String name;
     private final Resource resource;
 
     private volatile TemplateAST ast;
+    private volatile Tier tier = Tier.INTERPRETED;
+    /**
+     * Merges of current AST, it's not thread-safe, just a hint for tiered compiling.
+     */
+    private int mergeCount;
+    /**
+     * Output size of recent merges to bytes or strings, it's not thread-safe, just a hint for presizing.
+     */
+    private int outSizeHint = MIN_OUT_SIZE_HINT;
 
     Template(Engine engine, String name, Resource resource) {
         this.engine = engine;
@@ -49,6 +69,11 @@ public class Template {
     private TemplateAST prepareAst() {
         val myAst = this.ast;
         if (!isAstExpired(myAst)) {
+            if (this.tier == Tier.INTERPRETED
+                    && engine.isTieredCompileMode()
+                    && ++this.mergeCount >= engine.getCompileThreshold()) {
+                scheduleCompile(myAst);
+            }
             return myAst;
         }
         return prepareAst(false);
@@ -57,12 +82,67 @@ public class Template {
     private synchronized TemplateAST prepareAst(boolean forceRebuild) {
         TemplateAST myAst = this.ast;
         if (forceRebuild || isAstExpired(myAst)) {
-            myAst = Parser.parse(this);
+            myAst = parse();
+            this.mergeCount = 0;
+            if (engine.isBytecodeCompileMode()) {
+                val compiled = compile(myAst);
+                this.tier = compiled != myAst ? Tier.COMPILED : Tier.FAILED;
+                myAst = compiled;
+            } else {
+                this.tier = Tier.INTERPRETED;
+            }
             this.ast = myAst;
         }
         return myAst;
     }
 
+    private TemplateAST parse() {
+        val astCache = engine.getAstCache();
+        TemplateAST myAst = astCache.get(this);
+        if (myAst == null) {
+            myAst = Parser.parse(this);
+            astCache.put(this, myAst);
+        }
+        return myAst;
+    }
+
+    private synchronized void scheduleCompile(final TemplateAST source) {
+        if (this.tier != Tier.INTERPRETED || this.ast != source) {
+            return;
+        }
+        this.tier = Tier.COMPILING;
+        engine.executeCompileTask(() -> {
+            val compiled = compile(source);
+            synchronized (this) {
+                // discard if reloaded when compiling
+                if (this.ast != source) {
+                    return;
+                }
+                if (compiled != source) {
+                    this.ast = compiled;
+                    this.tier = Tier.COMPILED;
+                } else {
+                    this.tier = Tier.FAILED;
+                }
+            }
+        });
+    }
+
+    /**
+     * Compile AST to bytecode.
+     *
+     * @param myAst AST
+     * @return compiled AST, or the given one if failed
+     */
+    private TemplateAST compile(TemplateAST myAst) {
+        try {
+            return AsmTemplateCompiler.compile(myAst);
+        } catch (Exception | LinkageError e) {
+            engine.getLogger().error("Failed to compile template, fallback to interpreted: ".concat(name), e);
+            return myAst;
+        }
+    }
+
     private boolean isAstExpired(TemplateAST myAst) {
         if (myAst == null) {
             return true;
@@ -79,7 +159,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final OutputStream outputStream) {
-        return merge(Vars.EMPTY, new OutputStreamOut(outputStream, engine));
+        return mergeToStream(Vars.EMPTY, outputStream, null);
     }
 
     /**
@@ -92,7 +172,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final OutputStream out, final String encoding) {
-        return merge(Vars.EMPTY, new OutputStreamOut(out, InternedEncoding.intern(encoding), engine));
+        return mergeToStream(Vars.EMPTY, out, InternedEncoding.intern(encoding));
     }
 
     /**
@@ -104,7 +184,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Writer writer) {
-        return merge(Vars.EMPTY, new WriterOut(writer, engine));
+        return mergeToWriter(Vars.EMPTY, writer, null);
     }
 
     /**
@@ -117,7 +197,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Map<String, Object> vars, final OutputStream outputStream) {
-        return merge(Vars.of(vars), new OutputStreamOut(outputStream, engine));
+        return mergeToStream(Vars.of(vars), outputStream, null);
     }
 
     /**
@@ -131,7 +211,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Map<String, Object> vars, final OutputStream out, final String encoding) {
-        return merge(Vars.of(vars), new OutputStreamOut(out, InternedEncoding.intern(encoding), engine));
+        return mergeToStream(Vars.of(vars), out, InternedEncoding.intern(encoding));
     }
 
     /**
@@ -144,7 +224,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Map<String, Object> vars, final Writer writer) {
-        return merge(Vars.of(vars), new WriterOut(writer, engine));
+        return mergeToWriter(Vars.of(vars), writer, null);
     }
 
     /**
@@ -157,7 +237,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Vars vars, final OutputStream out) {
-        return merge(vars, new OutputStreamOut(out, engine));
+        return mergeToStream(vars, out, null);
     }
 
     /**
@@ -171,7 +251,7 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Vars vars, final OutputStream out, final String encoding) {
-        return merge(vars, new OutputStreamOut(out, InternedEncoding.intern(encoding), engine));
+        return mergeToStream(vars, out, InternedEncoding.intern(encoding));
     }
 
     /**
@@ -184,7 +264,151 @@ public class Template {
      * @throws ParseException
      */
     public Context merge(final Vars vars, final Writer writer) {
-        return merge(vars, new WriterOut(writer, engine));
+        return mergeToWriter(vars, writer, null);
+    }
+
+    /**
+     * Merge this template.
+     *
+     * @param channel
+     * @return Context
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public Context merge(final WritableByteChannel channel) {
+        return mergeToChannel(Vars.EMPTY, channel, null);
+    }
+
+    /**
+     * Merge this template.
+     *
+     * @param vars
+     * @param channel
+     * @return Context
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public Context merge(final Map<String, Object> vars, final WritableByteChannel channel) {
+        return mergeToChannel(Vars.of(vars), channel, null);
+    }
+
+    /**
+     * Merge this template.
+     *
+     * @param vars
+     * @param channel
+     * @return Context
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public Context merge(final Vars vars, final WritableByteChannel channel) {
+        return mergeToChannel(vars, channel, null);
+    }
+
+    /**
+     * Merge this template.
+     *
+     * @param vars
+     * @param channel
+     * @param encoding
+     * @return Context
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public Context merge(final Vars vars, final WritableByteChannel channel, final String encoding) {
+        return mergeToChannel(vars, channel, InternedEncoding.intern(encoding));
+    }
+
+    /**
+     * Merge this template to bytes, in the default encoding.
+     *
+     * @param vars
+     * @return bytes
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public byte[] mergeToBytes(final Map<String, Object> vars) {
+        return mergeToByteArray(Vars.of(vars), null);
+    }
+
+    /**
+     * Merge this template to bytes.
+     *
+     * @param vars
+     * @param encoding
+     * @return bytes
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public byte[] mergeToBytes(final Map<String, Object> vars, final String encoding) {
+        return mergeToByteArray(Vars.of(vars), InternedEncoding.intern(encoding));
+    }
+
+    /**
+     * Merge this template to bytes, in the default encoding.
+     *
+     * @param vars
+     * @return bytes
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public byte[] mergeToBytes(final Vars vars) {
+        return mergeToByteArray(vars, null);
+    }
+
+    /**
+     * Merge this template to bytes.
+     *
+     * @param vars
+     * @param encoding
+     * @return bytes
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public byte[] mergeToBytes(final Vars vars, final String encoding) {
+        return mergeToByteArray(vars, InternedEncoding.intern(encoding));
+    }
+
+    /**
+     * Merge this template to string.
+     *
+     * @param vars
+     * @return string
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public String mergeToString(final Map<String, Object> vars) {
+        return mergeToString(Vars.of(vars));
+    }
+
+    /**
+     * Merge this template to string.
+     *
+     * @param vars
+     * @return string
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public String mergeToString(final Vars vars) {
+        final FastCharArrayWriter writer = new FastCharArrayWriter(presizeOut());
+        final Buffers buffers = Buffers.borrow(engine.getBufferPool());
+        try {
+            render(vars, new WriterOut(writer, null, engine, buffers));
+        } finally {
+            buffers.release();
+        }
+        updateOutSizeHint(writer.size());
+        return writer.toString();
     }
 
     /**
@@ -256,6 +480,129 @@ public class Template {
         }
     }
 
+    /**
+     * Merge this template, without returning the context.
+     * <p>
+     * The context may be reused by following merges if {@code reuseContext} of engine is enabled.
+     *
+     * @param vars
+     * @param out
+     * @throws ScriptRuntimeException
+     * @throws ParseException
+     * @since 2.8.0
+     */
+    public void render(final Vars vars, final Out out) {
+        try {
+            val myAst = prepareAst();
+            if (engine.isReuseContext()) {
+                myAst.executeReusable(this, out, vars);
+            } else {
+                myAst.execute(this, out, vars);
+            }
+        } catch (Exception e) {
+            throw completeException(e);
+        }
+    }
+
+    private Context mergeToStream(final Vars vars, final OutputStream outputStream, final InternedEncoding encoding) {
+        final IoAction flush = engine.isOutFlush() ? outputStream::flush : null;
+        final Buffers buffers = Buffers.borrow(engine.getBufferPool());
+        final int chunkSize = engine.getOutChunkSize();
+        if (chunkSize <= 0) {
+            return mergeTo(vars, new OutputStreamOut(outputStream, encoding, engine, buffers), buffers, null, flush);
+        }
+        final ChunkedOutputStream chunked = new ChunkedOutputStream(outputStream, chunkSize, engine.getBufferPool());
+        return mergeTo(vars, new OutputStreamOut(chunked, encoding, engine, buffers), buffers, chunked::finish, flush);
+    }
+
+    private Context mergeToWriter(final Vars vars, final Writer writer, final InternedEncoding encoding) {
+        final IoAction flush = engine.isOutFlush() ? writer::flush : null;
+        final Buffers buffers = Buffers.borrow(engine.getBufferPool());
+        final int chunkSize = engine.getOutChunkSize();
+        if (chunkSize <= 0) {
+            return mergeTo(vars, new WriterOut(writer, encoding, engine, buffers), buffers, null, flush);
+        }
+        final ChunkedWriter chunked = new ChunkedWriter(writer, chunkSize, engine.getBufferPool());
+        return mergeTo(vars, new WriterOut(chunked, encoding, engine, buffers), buffers, chunked::finish, flush);
+    }
+
+    private Context mergeToChannel(final Vars vars, final WritableByteChannel channel,
+                                   final InternedEncoding encoding) {
+        final Buffers buffers = Buffers.borrow(engine.getBufferPool());
+        final ChannelOut out = new ChannelOut(channel, encoding, engine, buffers);
+        return mergeTo(vars, out, buffers, out::finish, null);
+    }
+
+    /**
+     * Merge to an out which holds outputs until finished, buffers are released at last.
+     *
+     * @param vars    vars
+     * @param out     out
+     * @param buffers buffers borrowed by the out
+     * @param finish  writes the held outputs, nullable
+     * @param flush   flushes the sink after finished, nullable
+     * @return context
+     */
+    private Context mergeTo(final Vars vars, final Out out, final Buffers buffers,
+                            final IoAction finish, final IoAction flush) {
+        try {
+            final Context context;
+            try {
+                context = merge(vars, out);
+            } catch (RuntimeException e) {
+                // outputs before failure are kept, same as unbuffered outs
+                if (finish != null) {
+                    try {
+                        finish.run();
+                    } catch (IOException ex) {
+                        e.addSuppressed(ex);
+                    }
+                }
+                throw e;
+            }
+            try {
+                if (finish != null) {
+                    finish.run();
+                }
+                if (flush != null) {
+                    flush.run();
+                }
+            } catch (IOException e) {
+                throw new ScriptRuntimeException(e);
+            }
+            return context;
+        } finally {
+            // outs may be used by exported functions later, buffers will be borrowed again if so
+            buffers.release();
+        }
+    }
+
+    private byte[] mergeToByteArray(final Vars vars, final InternedEncoding encoding) {
+        final FastByteArrayOutputStream out = new FastByteArrayOutputStream(presizeOut());
+        final Buffers buffers = Buffers.borrow(engine.getBufferPool());
+        try {
+            render(vars, new OutputStreamOut(out, encoding, engine, buffers));
+        } finally {
+            buffers.release();
+        }
+        updateOutSizeHint(out.size());
+        return out.toByteArray();
+    }
+
+    private int presizeOut() {
+        final int hint = this.outSizeHint;
+        // a little more, in case of growing
+        return hint + (hint >> 3);
+    }
+
+    private void updateOutSizeHint(final int size) {
+        final int hint = this.outSizeHint;
+        // grows at once, shrinks slowly
+        this.outSizeHint = size >= hint
+                ? size
+                : Math.max(MIN_OUT_SIZE_HINT, hint - ((hint - size) >> 2));
+    }
+
     public Context mergeToContext(final InternalContext context, final Vars vars) {
         try {
             return prepareAst()
@@ -329,6 +676,16 @@ public class Template {
         this.ast = null;
     }
 
+    /**
+     * Get the execution tier of current AST.
+     *
+     * @return tier
+     * @since 2.8.0
+     */
+    public Tier getTier() {
+        return tier;
+    }
+
     /**
      * Get the time that the template AST was last modified.
      *
@@ -392,4 +749,34 @@ public class Template {
                 ? ((TemplateException) exception)
                 : new ScriptRuntimeException(exception)).setTemplate(this);
     }
+
+    /**
+     * Execution tier of a template.
+     *
+     * @since 2.8.0
+     */
+    public enum Tier {
+        /**
+         * Executed by walking the AST.
+         */
+        INTERPRETED,
+        /**
+         * Executed by walking the AST, and being compiled in background.
+         */
+        COMPILING,
+        /**
+         * Executed by generated bytecode.
+         */
+        COMPILED,
+        /**
+         * Failed to compile, executed by walking the AST.
+         */
+        FAILED
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+
+        void run() throws IOException;
+    }
 }
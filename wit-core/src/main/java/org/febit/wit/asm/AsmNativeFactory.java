@@ -2,7 +2,7 @@
 package org.febit.wit.asm;
 
 import lombok.val;
-import org.febit.wit.core.NativeFactory;
+import org.febit.wit.core.MethodHandleNativeFactory;
 import org.febit.wit.lang.MethodDeclare;
 import org.febit.wit.util.ClassUtil;
 import org.febit.wit_shaded.asm.ClassWriter;
@@ -17,7 +17,7 @@ import java.lang.reflect.Method;
 /**
  * @author zqq90
  */
-public class AsmNativeFactory extends NativeFactory {
+public class AsmNativeFactory extends MethodHandleNativeFactory {
 
     private static final String[] METHOD_DECLARE = {"org/febit/wit/lang/MethodDeclare"};
 
@@ -36,7 +36,7 @@ public class AsmNativeFactory extends NativeFactory {
         if (accessor != null) {
             return accessor;
         }
-        return super.getNativeMethodDeclare(method);
+        return super.createNativeMethodDeclare(method);
     }
 
     protected MethodDeclare createMethodDeclare(Member member) {
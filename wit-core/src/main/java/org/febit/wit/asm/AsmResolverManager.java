@@ -3,7 +3,8 @@ package org.febit.wit.asm;
 
 import org.febit.wit.exceptions.UncheckedException;
 import org.febit.wit.resolvers.GetResolver;
-import org.febit.wit.resolvers.ResolverManager;
+import org.febit.wit.resolvers.MethodHandleResolverManager;
+import org.febit.wit.resolvers.PropertyGetter;
 import org.febit.wit.resolvers.SetResolver;
 import org.febit.wit.util.ClassMap;
 import org.febit.wit.util.ClassUtil;
@@ -18,14 +19,18 @@ import org.febit.wit_shaded.asm.MethodWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author zqq90
  */
-public class AsmResolverManager extends ResolverManager {
+public class AsmResolverManager extends MethodHandleResolverManager {
 
     private static final String[] ASM_RESOLVER = {"org/febit/wit/asm/AsmResolver"};
+    private static final String[] PROPERTY_GETTER = {"org/febit/wit/resolvers/PropertyGetter"};
     private static final ClassMap<AsmResolver> CACHE = new ClassMap<>();
+    private static final ClassMap<ConcurrentMap<String, PropertyGetter>> PROPERTY_GETTER_CACHE = new ClassMap<>();
 
     @Override
     protected SetResolver resolveSetResolver(Class<?> type) {
@@ -45,7 +50,65 @@ public class AsmResolverManager extends ResolverManager {
         return super.resolveGetResolver(type);
     }
 
+    @Override
+    protected PropertyGetter createPropertyGetter(Class<?> type, GetResolver resolver, String property) {
+        // only for generated resolvers, others may be overridden by user
+        if (resolver != null && resolver == CACHE.get(type)) {
+            PropertyGetter getter = getAsmPropertyGetter(type, property);
+            if (getter != null) {
+                return getter;
+            }
+        }
+        return super.createPropertyGetter(type, resolver, property);
+    }
+
+    private PropertyGetter getAsmPropertyGetter(Class<?> type, String property) {
+        ConcurrentMap<String, PropertyGetter> getters = PROPERTY_GETTER_CACHE.get(type);
+        if (getters == null) {
+            getters = PROPERTY_GETTER_CACHE.putIfAbsent(type, new ConcurrentHashMap<>());
+        }
+        PropertyGetter getter = getters.get(property);
+        if (getter != null) {
+            return getter;
+        }
+        final FieldInfo fieldInfo = FieldInfoResolver.resolve(type)
+                .filter(info -> info.name.equals(property))
+                .findFirst()
+                .orElse(null);
+        if (fieldInfo == null
+                || (fieldInfo.getGetterMethod() == null && fieldInfo.getField() == null)) {
+            // let resolver handle errors
+            return null;
+        }
+        try {
+            getter = (PropertyGetter) createPropertyGetterClass(type, fieldInfo)
+                    .getConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            logger.error("Failed to create property getter for:" + type.getName() + '#' + property, e);
+            return null;
+        }
+        final PropertyGetter old = getters.putIfAbsent(property, getter);
+        return old != null ? old : getter;
+    }
+
+    static Class<?> createPropertyGetterClass(Class<?> beanClass, FieldInfo fieldInfo) {
+        final String className = "org.febit.wit.asm.PropertyGetter" + AsmUtil.NEXT_SN.getAndIncrement();
+        final ClassWriter classWriter = new ClassWriter(Constants.V1_5, Constants.ACC_PUBLIC + Constants.ACC_FINAL,
+                AsmUtil.getInternalName(className), "java/lang/Object", PROPERTY_GETTER);
+        AsmUtil.visitConstructor(classWriter);
+        final MethodWriter m = classWriter.visitMethod(Constants.ACC_PUBLIC, "get",
+                "(Ljava/lang/Object;)Ljava/lang/Object;", null);
+        // same as getter of resolver, bean is the first argument too
+        appendGetFieldCode(m, fieldInfo, AsmUtil.getBoxedInternalName(beanClass));
+        m.visitMaxs();
+        return AsmUtil.loadClass(className, classWriter);
+    }
+
     private AsmResolver getAsmResolver(Class<?> type) {
+        if (!ClassUtil.isPublic(type)) {
+            // not accessible by generated classes, leave it to method handles
+            return null;
+        }
         AsmResolver resolver = CACHE.get(type);
         if (resolver == null) {
             synchronized (CACHE) {
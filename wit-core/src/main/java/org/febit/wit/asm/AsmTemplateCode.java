@@ -0,0 +1,21 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.asm;
+
+import org.febit.wit.InternalContext;
+
+/**
+ * Generated code of a compiled template.
+ *
+ * @author zqq90
+ * @see AsmTemplateCompiler
+ */
+public interface AsmTemplateCode {
+
+    /**
+     * Execute the compiled statements.
+     *
+     * @param nodes   AST nodes and constants referenced by the generated code
+     * @param context context
+     */
+    void execute(Object[] nodes, InternalContext context);
+}
@@ -0,0 +1,286 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.asm;
+
+import org.febit.wit.core.ast.Expression;
+import org.febit.wit.core.ast.Statement;
+import org.febit.wit.core.ast.TemplateAST;
+import org.febit.wit.core.ast.expressions.ContextValue;
+import org.febit.wit.core.ast.expressions.DirectValue;
+import org.febit.wit.core.ast.statements.Block;
+import org.febit.wit.core.ast.statements.BlockNoLoops;
+import org.febit.wit.core.ast.statements.EscapedInterpolation;
+import org.febit.wit.core.ast.statements.IBlock;
+import org.febit.wit.core.ast.statements.If;
+import org.febit.wit.core.ast.statements.IfElse;
+import org.febit.wit.core.ast.statements.IfNot;
+import org.febit.wit.core.ast.statements.Interpolation;
+import org.febit.wit.exceptions.UncheckedException;
+import org.febit.wit.util.ClassUtil;
+import org.febit.wit_shaded.asm.ClassWriter;
+import org.febit.wit_shaded.asm.Constants;
+import org.febit.wit_shaded.asm.Label;
+import org.febit.wit_shaded.asm.MethodWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a template AST to a generated class.
+ * <p>
+ * The root statements, and the blocks, if-statements and interpolations reachable without passing an other kind of
+ * statement, are unrolled into straight line code. Text writes and var slot reads are emitted directly, the other
+ * nodes are invoked by their exact type, so that call sites are monomorphic and could be inlined by JIT.
+ * <p>
+ * Each generated class has its own class loader, it's unloaded once the compiled AST is replaced and unreachable.
+ *
+ * @author zqq90
+ */
+public class AsmTemplateCompiler {
+
+    private static final String[] ASM_TEMPLATE_CODE = {"org/febit/wit/asm/AsmTemplateCode"};
+    private static final String TYPE_CONTEXT = "org/febit/wit/InternalContext";
+    private static final String DESC_EXECUTE = "([Ljava/lang/Object;Lorg/febit/wit/InternalContext;)V";
+    private static final String DESC_NODE_EXECUTE = "(Lorg/febit/wit/InternalContext;)Ljava/lang/Object;";
+
+    private static final int VAR_NODES = 1;
+    private static final int VAR_CONTEXT = 2;
+
+    /**
+     * Max weight of an inlined statement, larger ones are invoked as node.
+     */
+    private static final int MAX_INLINE_WEIGHT = 64;
+    /**
+     * Max weight of a generated method, keeps methods far below the JIT's huge method limit (8000 bytes).
+     */
+    private static final int MAX_METHOD_WEIGHT = 256;
+
+    private final String className;
+    private final ClassWriter classWriter;
+    private final List<Object> nodes = new ArrayList<>();
+    private int nextLocal;
+
+    protected AsmTemplateCompiler() {
+        this.className = "org.febit.wit.asm.Template" + AsmUtil.NEXT_SN.getAndIncrement();
+        this.classWriter = new ClassWriter(Constants.V1_5, Constants.ACC_PUBLIC + Constants.ACC_FINAL,
+                AsmUtil.getInternalName(className), "java/lang/Object", ASM_TEMPLATE_CODE);
+    }
+
+    /**
+     * Compile the given AST.
+     *
+     * @param ast template AST
+     * @return a new AST executes generated code
+     */
+    public static TemplateAST compile(TemplateAST ast) {
+        return ast.withStatements(new Statement[]{
+                new AsmTemplateCompiler().compile(ast.getStatements())
+        });
+    }
+
+    protected Statement compile(Statement[] statements) {
+        AsmUtil.visitConstructor(classWriter);
+        final String owner = AsmUtil.getInternalName(className);
+        final MethodWriter m = classWriter.visitMethod(Constants.ACC_PUBLIC, "execute", DESC_EXECUTE, null);
+        int chunkCount = 0;
+        int start = 0;
+        final int len = statements.length;
+        while (start < len) {
+            int end = start;
+            int weight = 0;
+            do {
+                weight += weightOf(statements[end++]);
+            } while (end < len && weight + weightOf(statements[end]) <= MAX_METHOD_WEIGHT);
+
+            final String chunkName = "execute" + chunkCount++;
+            visitChunk(chunkName, statements, start, end);
+            m.visitVarInsn(Constants.ALOAD, 0);
+            m.visitVarInsn(Constants.ALOAD, VAR_NODES);
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            m.invokeVirtual(owner, chunkName, DESC_EXECUTE);
+            start = end;
+        }
+        m.visitInsn(Constants.RETURN);
+        m.visitMaxs();
+
+        final AsmTemplateCode code;
+        try {
+            code = (AsmTemplateCode) AsmUtil.loadCollectableClass(className, classWriter)
+                    .getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new UncheckedException("Failed to create instance of " + className, e);
+        }
+        return new AsmTemplateStatement(code, nodes.toArray());
+    }
+
+    private void visitChunk(String name, Statement[] statements, int start, int end) {
+        final MethodWriter m = classWriter.visitMethod(Constants.ACC_PUBLIC, name, DESC_EXECUTE, null);
+        nextLocal = VAR_CONTEXT + 1;
+        for (int i = start; i < end; i++) {
+            visitStatement(m, statements[i]);
+        }
+        m.visitInsn(Constants.RETURN);
+        m.visitMaxs();
+    }
+
+    private void visitStatements(final MethodWriter m, final Statement[] statements, final boolean loopCheck) {
+        if (!loopCheck) {
+            for (Statement statement : statements) {
+                visitStatement(m, statement);
+            }
+            return;
+        }
+        // same as StatementUtil.executeWithLoopCheck
+        final Label end = new Label();
+        for (Statement statement : statements) {
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            m.invokeVirtual(TYPE_CONTEXT, "noLoop", "()Z");
+            m.visitJumpInsn(Constants.IFEQ, end);
+            visitStatement(m, statement);
+        }
+        m.visitLabel(end);
+    }
+
+    private void visitStatement(final MethodWriter m, final Statement statement) {
+        if (!isInlineable(statement)) {
+            visitNodeExecute(m, statement, Statement.class);
+            m.visitInsn(Constants.POP);
+            return;
+        }
+        final Class<?> type = statement.getClass();
+        if (type == Block.class || type == BlockNoLoops.class) {
+            final IBlock block = (IBlock) statement;
+            final int preIndexVar = nextLocal++;
+            // final int preIndex = context.indexer;
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            m.visitFieldInsn(Constants.GETFIELD, TYPE_CONTEXT, "indexer", "I");
+            m.visitVarInsn(Constants.ISTORE, preIndexVar);
+            // context.indexer = indexer;
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            m.push(block.getVarIndexer());
+            m.visitFieldInsn(Constants.PUTFIELD, TYPE_CONTEXT, "indexer", "I");
+
+            visitStatements(m, block.getStatements(), block.hasLoops());
+
+            // context.indexer = preIndex;
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            m.visitVarInsn(Constants.ILOAD, preIndexVar);
+            m.visitFieldInsn(Constants.PUTFIELD, TYPE_CONTEXT, "indexer", "I");
+            nextLocal--;
+        } else if (type == If.class) {
+            final If node = (If) statement;
+            final Label end = new Label();
+            visitIsTrue(m, node.getIfExpr());
+            m.visitJumpInsn(Constants.IFEQ, end);
+            visitStatement(m, node.getThenStatement());
+            m.visitLabel(end);
+        } else if (type == IfNot.class) {
+            final IfNot node = (IfNot) statement;
+            final Label end = new Label();
+            visitIsTrue(m, node.getIfExpr());
+            m.visitJumpInsn(Constants.IFNE, end);
+            visitStatement(m, node.getElseStatement());
+            m.visitLabel(end);
+        } else if (type == IfElse.class) {
+            final IfElse node = (IfElse) statement;
+            final Label elseLabel = new Label();
+            final Label end = new Label();
+            visitIsTrue(m, node.getIfExpr());
+            m.visitJumpInsn(Constants.IFEQ, elseLabel);
+            visitStatement(m, node.getThenStatement());
+            m.visitJumpInsn(Constants.GOTO, end);
+            m.visitLabel(elseLabel);
+            visitStatement(m, node.getElseStatement());
+            m.visitLabel(end);
+        } else if (type == EscapedInterpolation.class) {
+            // context.writeEscaped(expr.execute(context), escaper);
+            final EscapedInterpolation node = (EscapedInterpolation) statement;
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            visitExpression(m, node.getExpr());
+            visitNode(m, node.getEscaper());
+            m.checkCast("org/febit/wit/io/Escaper");
+            m.invokeVirtual(TYPE_CONTEXT, "writeEscaped", "(Ljava/lang/Object;Lorg/febit/wit/io/Escaper;)V");
+        } else {
+            // Interpolation: context.write(expr.execute(context));
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            visitExpression(m, ((Interpolation) statement).getExpr());
+            m.invokeVirtual(TYPE_CONTEXT, "write", "(Ljava/lang/Object;)V");
+        }
+    }
+
+    private void visitIsTrue(final MethodWriter m, final Expression expr) {
+        visitExpression(m, expr);
+        m.invokeStatic("org/febit/wit/util/ALU", "isTrue", "(Ljava/lang/Object;)Z");
+    }
+
+    private void visitExpression(final MethodWriter m, final Expression expr) {
+        final Class<?> type = expr.getClass();
+        if (type == ContextValue.class) {
+            // context.vars[index]
+            m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+            m.visitFieldInsn(Constants.GETFIELD, TYPE_CONTEXT, "vars", "[Ljava/lang/Object;");
+            m.push(((ContextValue) expr).getIndex());
+            m.visitInsn(Constants.AALOAD);
+        } else if (type == DirectValue.class) {
+            visitNode(m, ((DirectValue) expr).value);
+        } else {
+            visitNodeExecute(m, expr, Expression.class);
+        }
+    }
+
+    /**
+     * Push the node, and invoke it's execute method.
+     */
+    private void visitNodeExecute(final MethodWriter m, final Statement node, final Class<?> baseType) {
+        final Class<?> type = ClassUtil.isPublic(node.getClass()) ? node.getClass() : baseType;
+        final String typeName = AsmUtil.getInternalName(type.getName());
+        visitNode(m, node);
+        m.checkCast(typeName);
+        m.visitVarInsn(Constants.ALOAD, VAR_CONTEXT);
+        m.invokeVirtual(typeName, "execute", DESC_NODE_EXECUTE);
+    }
+
+    private void visitNode(final MethodWriter m, final Object node) {
+        final int index = nodes.size();
+        nodes.add(node);
+        m.visitVarInsn(Constants.ALOAD, VAR_NODES);
+        m.push(index);
+        m.visitInsn(Constants.AALOAD);
+    }
+
+    private static boolean isInlineable(final Statement statement) {
+        return isInlineableType(statement)
+                && inlineWeightOf(statement) <= MAX_INLINE_WEIGHT;
+    }
+
+    private static boolean isInlineableType(final Statement statement) {
+        final Class<?> type = statement.getClass();
+        return type == Block.class
+                || type == BlockNoLoops.class
+                || type == If.class
+                || type == IfNot.class
+                || type == IfElse.class
+                || type == Interpolation.class
+                || type == EscapedInterpolation.class;
+    }
+
+    private static int weightOf(final Statement statement) {
+        return isInlineable(statement) ? inlineWeightOf(statement) : 1;
+    }
+
+    private static int inlineWeightOf(final Statement statement) {
+        int weight = 1;
+        if (statement instanceof IBlock) {
+            for (Statement child : ((IBlock) statement).getStatements()) {
+                weight += weightOf(child);
+            }
+        } else if (statement instanceof If) {
+            weight += weightOf(((If) statement).getThenStatement());
+        } else if (statement instanceof IfNot) {
+            weight += weightOf(((IfNot) statement).getElseStatement());
+        } else if (statement instanceof IfElse) {
+            weight += weightOf(((IfElse) statement).getThenStatement())
+                    + weightOf(((IfElse) statement).getElseStatement());
+        }
+        return weight;
+    }
+}
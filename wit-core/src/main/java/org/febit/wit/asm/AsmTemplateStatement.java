@@ -0,0 +1,30 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.asm;
+
+import org.febit.wit.InternalContext;
+import org.febit.wit.core.ast.Statement;
+
+/**
+ * @author zqq90
+ */
+final class AsmTemplateStatement extends Statement {
+
+    private final AsmTemplateCode code;
+    private final Object[] nodes;
+
+    AsmTemplateStatement(AsmTemplateCode code, Object[] nodes) {
+        super(0, 0);
+        this.code = code;
+        this.nodes = nodes;
+    }
+
+    AsmTemplateCode getCode() {
+        return code;
+    }
+
+    @Override
+    public Object execute(final InternalContext context) {
+        code.execute(nodes, context);
+        return null;
+    }
+}
@@ -27,6 +27,18 @@ class AsmUtil {
         return CLASS_LOADER.loadClass(name, classWriter.toByteArray());
     }
 
+    /**
+     * Define the class by a new class loader, so the class could be unloaded once unreachable.
+     *
+     * @param name        class name
+     * @param classWriter class writer
+     * @return class
+     * @since 2.8.0
+     */
+    static Class<?> loadCollectableClass(String name, ClassWriter classWriter) {
+        return new AsmClassLoader().loadClass(name, classWriter.toByteArray());
+    }
+
     static String getBoxedInternalName(Class<?> type) {
         return getInternalName(type.isPrimitive()
                 ? ClassUtil.getBoxedPrimitiveClass(type).getName()
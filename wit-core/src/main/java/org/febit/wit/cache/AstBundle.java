@@ -0,0 +1,176 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache;
+
+import lombok.val;
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.core.Parser;
+import org.febit.wit.core.ast.TemplateAST;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A bundle of precompiled template ASTs, usually created at build time and packaged with templates.
+ * <p>
+ * Format: magic, format version, digest of engine fingerprint, entry count, and entries of template name, digest
+ * of template content and the serialized AST.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class AstBundle {
+
+    private static final int MAGIC = 0x57495442;
+    private static final int FORMAT_VERSION = 1;
+
+    private final String fingerprint;
+    private final Map<String, Entry> entries;
+
+    private AstBundle(String fingerprint, Map<String, Entry> entries) {
+        this.fingerprint = fingerprint;
+        this.entries = entries;
+    }
+
+    /**
+     * Create an empty bundle for the given engine.
+     *
+     * @param engine engine
+     * @return bundle
+     */
+    public static AstBundle create(Engine engine) {
+        return new AstBundle(fingerprintOf(engine), new TreeMap<>());
+    }
+
+    /**
+     * Read bundle.
+     *
+     * @param in input
+     * @return bundle
+     * @throws IOException if failed to read, or not a bundle
+     */
+    public static AstBundle read(InputStream in) throws IOException {
+        val dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not an AST bundle");
+        }
+        if (dataIn.readInt() != FORMAT_VERSION) {
+            throw new StreamCorruptedException("Unsupported AST bundle format");
+        }
+        val fingerprint = dataIn.readUTF();
+        val count = dataIn.readInt();
+        val entries = new TreeMap<String, Entry>();
+        for (int i = 0; i < count; i++) {
+            val name = dataIn.readUTF();
+            val digest = dataIn.readUTF();
+            val data = new byte[dataIn.readInt()];
+            dataIn.readFully(data);
+            entries.put(name, new Entry(digest, data));
+        }
+        return new AstBundle(fingerprint, entries);
+    }
+
+    static String fingerprintOf(Engine engine) {
+        return AstSerializer.sha1Hex(AstSerializer.fingerprint(engine));
+    }
+
+    /**
+     * Parse and add the given template.
+     *
+     * @param template template
+     * @return false if the AST is not serializable
+     * @throws IOException if failed to read template
+     */
+    public boolean add(Template template) throws IOException {
+        if (!fingerprint.equals(fingerprintOf(template.getEngine()))) {
+            throw new IllegalArgumentException("Template is not from the engine of this bundle: " + template.getName());
+        }
+        TemplateAST ast = Parser.parse(template);
+        val buf = new ByteArrayOutputStream(4096);
+        try {
+            AstSerializer.write(template.getEngine(), fingerprint, ast, buf);
+        } catch (NotSerializableException e) {
+            return false;
+        }
+        entries.put(template.getName(), new Entry(AstSerializer.digest(template), buf.toByteArray()));
+        return true;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        val dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(FORMAT_VERSION);
+        dataOut.writeUTF(fingerprint);
+        dataOut.writeInt(entries.size());
+        for (val entry : entries.entrySet()) {
+            dataOut.writeUTF(entry.getKey());
+            dataOut.writeUTF(entry.getValue().digest);
+            dataOut.writeInt(entry.getValue().data.length);
+            dataOut.write(entry.getValue().data);
+        }
+        dataOut.flush();
+    }
+
+    /**
+     * If this bundle is created by an engine with same settings.
+     *
+     * @param engine engine
+     * @return boolean
+     */
+    public boolean isCompatible(Engine engine) {
+        return fingerprint.equals(fingerprintOf(engine));
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    public Set<String> getNames() {
+        return entries.keySet();
+    }
+
+    /**
+     * Get AST of the given template.
+     *
+     * @param template      template
+     * @param verifyContent check if the template content is not changed since bundled
+     * @return AST, or null if not in this bundle, or content changed
+     * @throws IOException            if failed to read
+     * @throws ClassNotFoundException if class not found
+     */
+    public TemplateAST get(Template template, boolean verifyContent) throws IOException, ClassNotFoundException {
+        val entry = entries.get(template.getName());
+        if (entry == null) {
+            return null;
+        }
+        // version should be taken before content
+        val version = template.getResource().version();
+        if (verifyContent
+                && !entry.digest.equals(AstSerializer.digest(template))) {
+            return null;
+        }
+        val ast = AstSerializer.read(template.getEngine(), fingerprint, new ByteArrayInputStream(entry.data));
+        return ast != null ? ast.withResourceVersion(version) : null;
+    }
+
+    private static final class Entry {
+
+        final String digest;
+        final byte[] data;
+
+        Entry(String digest, byte[] data) {
+            this.digest = digest;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache;
+
+import org.febit.wit.Template;
+import org.febit.wit.core.ast.TemplateAST;
+
+/**
+ * Cache of parsed template AST, survives engine restarts.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public interface AstCache {
+
+    /**
+     * Get cached AST of the given template.
+     *
+     * @param template template
+     * @return AST, or null if not cached or out of date
+     */
+    TemplateAST get(Template template);
+
+    /**
+     * Cache the AST of the given template, just parsed.
+     *
+     * @param template template
+     * @param ast      AST
+     */
+    void put(Template template, TemplateAST ast);
+}
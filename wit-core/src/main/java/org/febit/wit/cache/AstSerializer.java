@@ -0,0 +1,305 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache;
+
+import lombok.val;
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.core.ast.TemplateAST;
+import org.febit.wit.core.text.TextStatementFactory;
+import org.febit.wit.global.GlobalManager;
+import org.febit.wit.io.Escaper;
+import org.febit.wit.util.ClassUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Serialized form of {@link TemplateAST}.
+ * <p>
+ * Engine bound objects, the global manager and non-serializable const values, are written as references and
+ * resolved against the reading engine. Templates which hold other non-serializable objects (native methods etc.)
+ * can't be serialized, they should be parsed as usual.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class AstSerializer {
+
+    private static final int FORMAT_VERSION = 1;
+    /**
+     * Version of the parser and AST classes, bump it on changes of them.
+     * <p>
+     * AST classes declare fixed {@code serialVersionUID}s, so compatible changes are not detected by serialization,
+     * and the version of package is the same between snapshot builds.
+     */
+    private static final int AST_VERSION = 1;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+            "java.lang.Object",
+            "java.lang.String",
+            "java.lang.Boolean",
+            "java.lang.Character",
+            "java.lang.Number",
+            "java.lang.Byte",
+            "java.lang.Short",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Float",
+            "java.lang.Double",
+            "java.lang.Enum",
+            "java.lang.invoke.SerializedLambda",
+            "java.math.BigInteger",
+            "java.math.BigDecimal",
+            "java.util.HashMap"
+    ));
+
+    private static final Set<Class<?>> PLAIN_VALUE_TYPES = new HashSet<>(Arrays.asList(
+            String.class,
+            Boolean.class,
+            Character.class,
+            Byte.class,
+            Short.class,
+            Integer.class,
+            Long.class,
+            Float.class,
+            Double.class,
+            BigInteger.class,
+            BigDecimal.class
+    ));
+
+    private AstSerializer() {
+    }
+
+    public static void write(Engine engine, String digest, TemplateAST ast, OutputStream out) throws IOException {
+        val objectOut = new AstOutputStream(out, engine);
+        objectOut.writeInt(FORMAT_VERSION);
+        objectOut.writeUTF(digest);
+        objectOut.writeObject(ast);
+        objectOut.flush();
+    }
+
+    /**
+     * Read AST.
+     *
+     * @param engine engine
+     * @param digest expected digest
+     * @param in     input
+     * @return AST, or null if digest not matched
+     * @throws IOException            if failed to read, or illegal data
+     * @throws ClassNotFoundException if class not found
+     */
+    public static TemplateAST read(Engine engine, String digest, InputStream in)
+            throws IOException, ClassNotFoundException {
+        val objectIn = new AstInputStream(in, engine);
+        if (objectIn.readInt() != FORMAT_VERSION
+                || !objectIn.readUTF().equals(digest)) {
+            return null;
+        }
+        return (TemplateAST) objectIn.readObject();
+    }
+
+    /**
+     * Fingerprint of engine settings, which affect the result of parsing.
+     *
+     * @param engine engine
+     * @return fingerprint
+     */
+    public static String fingerprint(Engine engine) {
+        val pkg = Engine.class.getPackage();
+        val encoding = engine.getEncoding();
+        val buf = new StringBuilder(256)
+                .append(FORMAT_VERSION)
+                .append(',').append(AST_VERSION)
+                .append('|').append(pkg != null ? pkg.getImplementationVersion() : null)
+                .append('|').append(engine.isLooseVar())
+                .append(',').append(engine.isLooseSemicolon())
+                .append(',').append(engine.isTrimCodeBlockBlankLine())
+                .append(',').append(Escaper.of(engine.getEscape()))
+                .append('|').append(encoding != null ? encoding.value : null)
+                .append('|').append(Arrays.toString(engine.getVars()))
+                .append('|').append(engine.get(TextStatementFactory.class).getClass().getName())
+                .append('|');
+        // const values are folded into AST
+        val consts = new TreeMap<String, Object>();
+        engine.getGlobalManager().forEachConst(consts::put);
+        consts.forEach((name, value) -> {
+            buf.append(name);
+            if (isPlainValue(value)) {
+                buf.append('=').append(value);
+            }
+            buf.append(',');
+        });
+        return buf.toString();
+    }
+
+    /**
+     * Digest of engine fingerprint, template name and template content.
+     *
+     * @param template template
+     * @return digest
+     * @throws IOException if failed to read template
+     */
+    public static String digest(Template template) throws IOException {
+        val resource = template.getResource();
+        val md = sha1();
+        md.update(fingerprint(template.getEngine()).getBytes(StandardCharsets.UTF_8));
+        md.update(template.getName().getBytes(StandardCharsets.UTF_8));
+        md.update((byte) (resource.isCodeFirst() ? 1 : 0));
+        val buf = new char[4096];
+        try (Reader reader = resource.openReader()) {
+            int len;
+            while ((len = reader.read(buf)) != -1) {
+                md.update(StandardCharsets.UTF_8.encode(CharBuffer.wrap(buf, 0, len)));
+            }
+        }
+        return toHex(md.digest());
+    }
+
+    public static String sha1Hex(String str) {
+        return toHex(sha1().digest(str.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        val chars = new char[bytes.length << 1];
+        int i = 0;
+        for (byte b : bytes) {
+            chars[i++] = HEX[(b >> 4) & 0xF];
+            chars[i++] = HEX[b & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Immutable values, could be written by value.
+     */
+    private static boolean isPlainValue(Object value) {
+        return value != null
+                && PLAIN_VALUE_TYPES.contains(value.getClass());
+    }
+
+    private static boolean isAllowedClass(String name) {
+        int i = 0;
+        while (name.charAt(i) == '[') {
+            i++;
+        }
+        if (i != 0) {
+            if (name.charAt(i) != 'L') {
+                // primitive array
+                return true;
+            }
+            name = name.substring(i + 1, name.length() - 1);
+        }
+        return name.startsWith("org.febit.wit.")
+                || ALLOWED_CLASSES.contains(name);
+    }
+
+    private enum GlobalManagerRef {
+        INSTANCE
+    }
+
+    private static final class ConstRef implements Serializable {
+
+        private final String name;
+
+        ConstRef(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class AstOutputStream extends ObjectOutputStream {
+
+        private final GlobalManager globalManager;
+        private final Map<Object, String> constNames = new IdentityHashMap<>();
+
+        AstOutputStream(OutputStream out, Engine engine) throws IOException {
+            super(out);
+            this.globalManager = engine.getGlobalManager();
+            this.globalManager.forEachConst((name, value) -> {
+                if (value != null && !isPlainValue(value)) {
+                    constNames.put(value, name);
+                }
+            });
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj == globalManager) {
+                return GlobalManagerRef.INSTANCE;
+            }
+            val constName = constNames.get(obj);
+            if (constName != null) {
+                return new ConstRef(constName);
+            }
+            return obj;
+        }
+    }
+
+    private static final class AstInputStream extends ObjectInputStream {
+
+        private final GlobalManager globalManager;
+
+        AstInputStream(InputStream in, Engine engine) throws IOException {
+            super(in);
+            this.globalManager = engine.getGlobalManager();
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            val name = desc.getName();
+            if (!isAllowedClass(name)) {
+                throw new InvalidClassException(name, "Not allowed in serialized AST");
+            }
+            try {
+                return Class.forName(name, false, ClassUtil.getDefaultClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj == GlobalManagerRef.INSTANCE) {
+                return globalManager;
+            }
+            if (obj instanceof ConstRef) {
+                val name = ((ConstRef) obj).name;
+                if (!globalManager.hasConst(name)) {
+                    throw new InvalidObjectException("Const not found: " + name);
+                }
+                return globalManager.getConst(name);
+            }
+            return obj;
+        }
+    }
+}
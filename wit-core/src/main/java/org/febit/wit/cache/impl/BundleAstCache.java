@@ -0,0 +1,109 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache.impl;
+
+import lombok.val;
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.cache.AstBundle;
+import org.febit.wit.cache.AstCache;
+import org.febit.wit.core.ast.TemplateAST;
+import org.febit.wit.loggers.Logger;
+import org.febit.wit.util.ClassUtil;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves precompiled ASTs from bundles in classpath, see {@link AstBundle}.
+ * <p>
+ * Bundled templates are not read or parsed at runtime. Bundles created by an engine with different settings are
+ * ignored. Templates not in bundles are parsed as usual.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class BundleAstCache implements AstCache {
+
+    public static final String DEFAULT_PATH = "META-INF/wit/templates.witb";
+
+    protected Engine engine;
+    protected Logger logger;
+
+    // settings
+    protected String path = DEFAULT_PATH;
+    /**
+     * Check if the template content is not changed since bundled, turn on if templates could be modified.
+     */
+    protected boolean verifyContent;
+
+    private volatile AstBundle[] bundles;
+
+    @Override
+    public TemplateAST get(Template template) {
+        for (AstBundle bundle : getBundles()) {
+            if (!bundle.contains(template.getName())) {
+                continue;
+            }
+            try {
+                return bundle.get(template, verifyContent);
+            } catch (InvalidClassException | ClassNotFoundException e) {
+                // created by other versions of classes, as a miss
+                logger.debug("Ignored bundled AST of template {}, classes changed: {}",
+                        template.getName(), e.getMessage());
+                return null;
+            } catch (Exception e) {
+                logger.warn("Failed to read bundled AST of template: ".concat(template.getName()), e);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Template template, TemplateAST ast) {
+        // bundles are read-only
+    }
+
+    /**
+     * Bundles are loaded lazily, since engine fingerprint is not stable until globals are committed.
+     */
+    protected AstBundle[] getBundles() {
+        AstBundle[] result = this.bundles;
+        if (result == null) {
+            synchronized (this) {
+                result = this.bundles;
+                if (result == null) {
+                    result = loadBundles();
+                    this.bundles = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    protected AstBundle[] loadBundles() {
+        final List<AstBundle> list = new ArrayList<>();
+        try {
+            val urls = ClassUtil.getDefaultClassLoader().getResources(path);
+            while (urls.hasMoreElements()) {
+                val url = urls.nextElement();
+                final AstBundle bundle;
+                try (val in = new BufferedInputStream(url.openStream())) {
+                    bundle = AstBundle.read(in);
+                }
+                if (!bundle.isCompatible(engine)) {
+                    logger.warn("Ignored AST bundle created with different engine settings: {}", url);
+                    continue;
+                }
+                logger.info("Loaded AST bundle: {}", url);
+                list.add(bundle);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to load AST bundles: ".concat(path), e);
+        }
+        return list.toArray(new AstBundle[0]);
+    }
+}
@@ -0,0 +1,107 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache.impl;
+
+import lombok.val;
+import org.febit.wit.Engine;
+import org.febit.wit.Init;
+import org.febit.wit.Template;
+import org.febit.wit.cache.AstCache;
+import org.febit.wit.cache.AstSerializer;
+import org.febit.wit.core.ast.TemplateAST;
+import org.febit.wit.exceptions.IllegalConfigException;
+import org.febit.wit.loggers.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Caches AST in a directory, one file per template.
+ * <p>
+ * Cached AST is used only if the digest of engine settings, template name and template content is not changed.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class FileAstCache implements AstCache {
+
+    protected Engine engine;
+    protected Logger logger;
+
+    // settings
+    protected String dir;
+
+    protected File root;
+
+    @Init
+    public void init() {
+        if (dir == null || dir.isEmpty()) {
+            throw new IllegalConfigException("fileAstCache.dir is required");
+        }
+        root = new File(dir);
+        if (!root.isDirectory() && !root.mkdirs()) {
+            throw new IllegalConfigException("Can't create AST cache dir: " + root);
+        }
+    }
+
+    @Override
+    public TemplateAST get(Template template) {
+        val file = getFile(template);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            // version should be taken before content
+            val version = template.getResource().version();
+            val digest = AstSerializer.digest(template);
+            TemplateAST ast;
+            try (val in = new BufferedInputStream(new FileInputStream(file))) {
+                ast = AstSerializer.read(engine, digest, in);
+            }
+            return ast != null ? ast.withResourceVersion(version) : null;
+        } catch (InvalidClassException | ClassNotFoundException e) {
+            // created by other versions of classes, as a miss
+            logger.debug("Ignored cached AST of template {}, classes changed: {}", template.getName(), e.getMessage());
+            return null;
+        } catch (Exception e) {
+            logger.warn("Failed to read cached AST of template: ".concat(template.getName()), e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(Template template, TemplateAST ast) {
+        if (ast.getResourceVersion() != template.getResource().version()) {
+            // changed after parsed
+            return;
+        }
+        val file = getFile(template);
+        File temp = null;
+        try {
+            val digest = AstSerializer.digest(template);
+            temp = File.createTempFile(file.getName(), ".tmp", root);
+            try (val out = new BufferedOutputStream(new FileOutputStream(temp))) {
+                AstSerializer.write(engine, digest, ast, out);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (NotSerializableException e) {
+            logger.debug("Can't cache AST of template {}, not serializable: {}", template.getName(), e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Failed to cache AST of template: ".concat(template.getName()), e);
+        } finally {
+            if (temp != null && temp.exists() && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    protected File getFile(Template template) {
+        return new File(root, AstSerializer.sha1Hex(template.getName()) + ".ast");
+    }
+}
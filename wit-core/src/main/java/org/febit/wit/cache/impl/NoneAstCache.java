@@ -0,0 +1,23 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache.impl;
+
+import org.febit.wit.Template;
+import org.febit.wit.cache.AstCache;
+import org.febit.wit.core.ast.TemplateAST;
+
+/**
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class NoneAstCache implements AstCache {
+
+    @Override
+    public TemplateAST get(Template template) {
+        return null;
+    }
+
+    @Override
+    public void put(Template template, TemplateAST ast) {
+        // none
+    }
+}
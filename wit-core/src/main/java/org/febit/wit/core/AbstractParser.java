@@ -24,12 +24,16 @@ import org.febit.wit.core.ast.operators.BiOperator;
 import org.febit.wit.core.ast.operators.ConstableBiOperator;
 import org.febit.wit.core.ast.operators.ConstableOperator;
 import org.febit.wit.core.ast.operators.GroupAssign;
+import org.febit.wit.core.ast.operators.IfOperator;
 import org.febit.wit.core.ast.operators.IntStep;
 import org.febit.wit.core.ast.operators.Or;
 import org.febit.wit.core.ast.operators.SelfOperator;
+import org.febit.wit.core.ast.operators.SpecializingBiOperator;
 import org.febit.wit.core.ast.statements.Block;
 import org.febit.wit.core.ast.statements.BlockNoLoops;
 import org.febit.wit.core.ast.statements.BreakpointStatement;
+import org.febit.wit.core.ast.statements.Echo;
+import org.febit.wit.core.ast.statements.EscapedInterpolation;
 import org.febit.wit.core.ast.statements.IBlock;
 import org.febit.wit.core.ast.statements.If;
 import org.febit.wit.core.ast.statements.IfElse;
@@ -42,6 +46,7 @@ import org.febit.wit.core.text.TextStatementFactory;
 import org.febit.wit.debug.BreakpointListener;
 import org.febit.wit.exceptions.ParseException;
 import org.febit.wit.exceptions.UncheckedException;
+import org.febit.wit.io.Escaper;
 import org.febit.wit.lang.MethodDeclare;
 import org.febit.wit.loaders.Resource;
 import org.febit.wit.loaders.ResourceOffset;
@@ -54,10 +59,15 @@ import org.febit.wit.util.Stack;
 import org.febit.wit.util.StatementUtil;
 import org.febit.wit.util.StringUtil;
 
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -181,6 +191,10 @@ abstract class AbstractParser {
     private final Map<String, String> importedClasses = new HashMap<>();
     private final Map<String, Integer> labelIndexMap = new HashMap<>();
     private final AtomicInteger nextLabelIndex = new AtomicInteger();
+    /**
+     * Text of created text statements, for merging adjacent ones.
+     */
+    private final Map<Statement, char[]> texts = new IdentityHashMap<>();
 
     private TextStatementFactory textStatementFactory;
     private NativeSecurityManager nativeSecurityManager;
@@ -188,6 +202,7 @@ abstract class AbstractParser {
     private Engine engine;
     private NativeFactory nativeFactory;
     private boolean locateVarForce;
+    private Escaper escaper;
 
     protected final Stack<Symbol> symbolStack = new Stack<>(24);
     protected Template template;
@@ -469,6 +484,7 @@ abstract class AbstractParser {
         this.template = template;
         this.engine = myEngine;
         this.locateVarForce = !myEngine.isLooseVar();
+        this.escaper = Escaper.of(myEngine.getEscape());
         this.nativeFactory = myEngine.getNativeFactory();
         this.varmgr = new VariantManager(myEngine);
         this.labelIndexMap.put(null, 0);
@@ -617,7 +633,51 @@ abstract class AbstractParser {
         if (text == null || text.length == 0) {
             return NoneStatement.INSTANCE;
         }
-        return this.textStatementFactory.getTextStatement(template, text, line, column);
+        final Statement statement = this.textStatementFactory.getTextStatement(template, text, line, column);
+        if (statement != null) {
+            texts.put(statement, text);
+        }
+        return statement;
+    }
+
+    /**
+     * Optimize statements, and merge adjacent text statements, to reduce writes to out.
+     */
+    Statement[] toStatementArray(List<Statement> list) {
+        final Statement[] statements = StatementUtil.toStatementArray(list);
+        final int len = statements.length;
+        List<Statement> result = null;
+        int i = 0;
+        while (i < len) {
+            final Statement statement = statements[i];
+            int end = i + 1;
+            if (texts.containsKey(statement)) {
+                while (end < len && texts.containsKey(statements[end])) {
+                    end++;
+                }
+            }
+            if (end - i == 1) {
+                if (result != null) {
+                    result.add(statement);
+                }
+                i = end;
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>(len);
+                result.addAll(Arrays.asList(statements).subList(0, i));
+            }
+            final CharArrayWriter writer = new CharArrayWriter(256);
+            for (int j = i; j < end; j++) {
+                final char[] text = texts.get(statements[j]);
+                writer.write(text, 0, text.length);
+            }
+            result.add(createTextStatement(writer.toCharArray(), statement.line, statement.column));
+            i = end;
+        }
+        return result != null
+                ? result.toArray(new Statement[0])
+                : statements;
     }
 
     ContextValue declareVarAndCreateContextValue(String name, int line, int column) {
@@ -711,7 +771,39 @@ abstract class AbstractParser {
     }
 
     Statement createInterpolation(final Expression expr) {
-        return new Interpolation(expr);
+        final Expression optimized = StatementUtil.optimize(expr);
+        final Statement text = createConstTextStatement(optimized, optimized.line, optimized.column, escaper);
+        if (text != null) {
+            return text;
+        }
+        return escaper != null
+                ? new EscapedInterpolation(optimized, escaper)
+                : new Interpolation(optimized);
+    }
+
+    Statement createEcho(final Expression expr, int line, int column) {
+        final Expression optimized = StatementUtil.optimize(expr);
+        final Statement text = createConstTextStatement(optimized, line, column, null);
+        return text != null ? text : new Echo(optimized, line, column);
+    }
+
+    private Statement createConstTextStatement(final Expression expr, int line, int column,
+                                               final Escaper escaper) {
+        if (!(expr instanceof DirectValue)) {
+            return null;
+        }
+        // same as InternalContext#write, others may be rendered by out resolvers
+        final Object value = ((DirectValue) expr).value;
+        if (value == null) {
+            return NoneStatement.INSTANCE;
+        }
+        if (value.getClass() == String.class) {
+            final String string = escaper != null
+                    ? escaper.escape((String) value)
+                    : (String) value;
+            return createTextStatement(string.toCharArray(), line, column);
+        }
+        return null;
     }
 
     Expression createNativeNewArrayDeclareExpression(Class<?> componentType, int line, int column) {
@@ -759,23 +851,34 @@ abstract class AbstractParser {
 
     Statement createIfStatement(Expression ifExpr, Statement thenStatement,
                                 Statement elseStatement, int line, int column) {
+        ifExpr = StatementUtil.optimize(ifExpr);
         thenStatement = StatementUtil.optimize(thenStatement);
         elseStatement = StatementUtil.optimize(elseStatement);
+        final Statement statement;
         if (thenStatement != null) {
             if (elseStatement != null) {
-                return new IfElse(ifExpr, thenStatement, elseStatement, line, column);
+                statement = new IfElse(ifExpr, thenStatement, elseStatement, line, column);
             } else {
-                return new If(ifExpr, thenStatement, line, column);
+                statement = new If(ifExpr, thenStatement, line, column);
             }
         } else if (elseStatement != null) {
-            return new IfNot(ifExpr, elseStatement, line, column);
+            statement = new IfNot(ifExpr, elseStatement, line, column);
         } else {
             return NoneStatement.INSTANCE;
         }
+        // drops unreachable branch if condition is const
+        final Statement optimized = StatementUtil.optimize(statement);
+        return optimized != null ? optimized : NoneStatement.INSTANCE;
+    }
+
+    Expression createIfOperator(Expression ifExpr, Expression leftValueExpr, Expression rightValueExpr,
+                                int line, int column) {
+        return StatementUtil.optimize(new IfOperator(StatementUtil.optimize(ifExpr),
+                StatementUtil.optimize(leftValueExpr), StatementUtil.optimize(rightValueExpr), line, column));
     }
 
     Statement createStatementGroup(List<Statement> list, int line, int column) {
-        return new StatementGroup(StatementUtil.toStatementArray(list), line, column);
+        return new StatementGroup(toStatementArray(list), line, column);
     }
 
     Expression createMethodExecute(Expression funcExpr, Expression[] paramExprs, int line, int column) {
@@ -792,7 +895,7 @@ abstract class AbstractParser {
     }
 
     TemplateAST createTemplateAST(List<Statement> list) {
-        Statement[] statements = StatementUtil.toStatementArray(list);
+        Statement[] statements = toStatementArray(list);
         List<LoopInfo> loops = StatementUtil.collectPossibleLoops(statements);
         if (!loops.isEmpty()) {
             throw new ParseException("loop overflow: " + StringUtil.join(loops, ','));
@@ -801,7 +904,7 @@ abstract class AbstractParser {
     }
 
     IBlock createIBlock(List<Statement> list, int varIndexer, int line, int column) {
-        Statement[] statements = StatementUtil.toStatementArray(list);
+        Statement[] statements = toStatementArray(list);
         List<LoopInfo> loops = StatementUtil.collectPossibleLoops(statements);
         return loops.isEmpty()
                 ? new BlockNoLoops(varIndexer, statements, line, column)
@@ -828,7 +931,7 @@ abstract class AbstractParser {
         return StatementUtil.optimize(new SelfOperator(leftExpr, rightExpr, biFunc, line, column));
     }
 
-    BiFunction<Object, Object, Object> getBiFunctionForBiOperator(int op) {
+    SerializableBiFunction getBiFunctionForBiOperator(int op) {
         switch (op) {
             case OP_PLUSEQ:
             case Tokens.PLUS:
@@ -883,7 +986,7 @@ abstract class AbstractParser {
     Expression createOperator(Expression expr, Symbol symSymbol) {
         int line = symSymbol.line;
         int column = symSymbol.column;
-        Function<Object, Object> func;
+        SerializableFunction func;
         switch ((Integer) symSymbol.value) {
             case Tokens.COMP:
                 func = ALU::bitNot;
@@ -919,9 +1022,49 @@ abstract class AbstractParser {
                 if (biFunc == null) {
                     throw ParseException.unsupportedOperator(line, column);
                 }
-                op = new ConstableBiOperator(leftExpr, rightExpr, biFunc, line, column);
+                val opcode = getSpecializingOpcode((Integer) symSymbol.value);
+                op = opcode != 0
+                        ? new SpecializingBiOperator(leftExpr, rightExpr, opcode, biFunc, line, column)
+                        : new ConstableBiOperator(leftExpr, rightExpr, biFunc, line, column);
         }
         return StatementUtil.optimize(op);
     }
 
+    static int getSpecializingOpcode(int op) {
+        switch (op) {
+            case Tokens.PLUS:
+                return SpecializingBiOperator.PLUS;
+            case Tokens.MINUS:
+                return SpecializingBiOperator.MINUS;
+            case Tokens.MULT:
+                return SpecializingBiOperator.MULT;
+            case Tokens.DIV:
+                return SpecializingBiOperator.DIV;
+            case Tokens.MOD:
+                return SpecializingBiOperator.MOD;
+            case Tokens.LT:
+                return SpecializingBiOperator.LT;
+            case Tokens.GT:
+                return SpecializingBiOperator.GT;
+            case Tokens.LTEQ:
+                return SpecializingBiOperator.LTEQ;
+            case Tokens.GTEQ:
+                return SpecializingBiOperator.GTEQ;
+            case Tokens.EQEQ:
+                return SpecializingBiOperator.EQ;
+            case Tokens.NOTEQ:
+                return SpecializingBiOperator.NOTEQ;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Operators are kept in AST, they should be serializable for caching AST.
+     */
+    interface SerializableFunction extends Function<Object, Object>, Serializable {
+    }
+
+    interface SerializableBiFunction extends BiFunction<Object, Object, Object>, Serializable {
+    }
 }
@@ -1,10 +1,14 @@
 // Copyright (c) 2013-present, febit.org. All Rights Reserved.
 package org.febit.wit.core;
 
+import java.io.Serializable;
+
 /**
  * @author zqq90
  */
-public class LoopInfo {
+public class LoopInfo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final int BREAK = 1;
     public static final int CONTINUE = 2;
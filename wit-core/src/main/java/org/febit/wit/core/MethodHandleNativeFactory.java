@@ -0,0 +1,41 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.core;
+
+import org.febit.wit.lang.MethodDeclare;
+import org.febit.wit.lang.method.MethodHandleMethodDeclare;
+import org.febit.wit.util.ClassUtil;
+import org.febit.wit.util.MethodHandleUtil;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Native factory backed by method handles, works for non-public classes and members as well.
+ * <p>
+ * Falls back to reflection if failed to create the handle.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class MethodHandleNativeFactory extends NativeFactory {
+
+    @Override
+    protected MethodDeclare createNativeConstructorDeclare(Constructor constructor) {
+        try {
+            return new MethodHandleMethodDeclare(MethodHandleUtil.unreflectConstructor(constructor), false);
+        } catch (Exception e) {
+            logger.debug("Failed to create method handle for '" + constructor + "', fallback to reflection.", e);
+        }
+        return super.createNativeConstructorDeclare(constructor);
+    }
+
+    @Override
+    public MethodDeclare createNativeMethodDeclare(Method method) {
+        try {
+            return new MethodHandleMethodDeclare(MethodHandleUtil.unreflect(method), !ClassUtil.isStatic(method));
+        } catch (Exception e) {
+            logger.debug("Failed to create method handle for '" + method + "', fallback to reflection.", e);
+        }
+        return super.createNativeMethodDeclare(method);
+    }
+}
@@ -3,31 +3,88 @@ package org.febit.wit.core;
 
 import org.febit.wit.util.ArrayUtil;
 
+import java.io.Serializable;
 import java.util.function.ObjIntConsumer;
 
 /**
  * @author zqq90
  */
-public final class VariantIndexer {
+public final class VariantIndexer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final VariantIndexer EMPTY = new VariantIndexer(null, ArrayUtil.emptyStrings(), null);
 
+    /**
+     * Smaller indexers are scanned, cheaper than hashing.
+     */
+    private static final int MIN_HASHED_SIZE = 8;
+
     private final VariantIndexer parent;
     private final String[] names;
     private final int[] indexes;
+    /**
+     * Open addressing table of {@code position + 1} in names, 0 if empty; null if not hashed.
+     */
+    private final transient int[] table;
 
     VariantIndexer(VariantIndexer parent, String[] names, int[] indexes) {
         this.parent = parent;
         this.names = names;
         this.indexes = indexes;
+        this.table = names.length >= MIN_HASHED_SIZE
+                ? createTable(names)
+                : null;
+    }
+
+    private static int[] createTable(final String[] names) {
+        // load factor not more than 0.5
+        final int[] table = new int[Integer.highestOneBit(names.length) << 2];
+        final int mask = table.length - 1;
+        for (int i = 0; i < names.length; i++) {
+            int slot = hash(names[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    private static int hash(final String name) {
+        final int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private Object readResolve() {
+        // rebuild the transient table
+        return new VariantIndexer(parent, names, indexes);
     }
 
     public int getCurrentIndex(final String name) {
         final String[] myNames = this.names;
-        for (int i = 0, len = myNames.length; i < len; i++) {
-            if (myNames[i].equals(name)) {
-                return indexes[i];
+        final int[] myTable = this.table;
+        if (myTable == null) {
+            for (int i = 0, len = myNames.length; i < len; i++) {
+                final String item = myNames[i];
+                if (item == name || item.equals(name)) {
+                    return indexes[i];
+                }
+            }
+            return -1;
+        }
+        if (name == null) {
+            return -1;
+        }
+        final int mask = myTable.length - 1;
+        int slot = hash(name) & mask;
+        int entry;
+        while ((entry = myTable[slot]) != 0) {
+            final String item = myNames[entry - 1];
+            if (item == name || item.equals(name)) {
+                return indexes[entry - 1];
             }
+            slot = (slot + 1) & mask;
         }
         return -1;
     }
@@ -41,13 +98,14 @@ public final class VariantIndexer {
     }
 
     public int getIndex(final String name) {
-        final int index = getCurrentIndex(name);
-        if (index != -1) {
-            return index;
-        }
-        if (this.parent != null) {
-            return parent.getIndex(name);
-        }
+        VariantIndexer indexer = this;
+        do {
+            final int index = indexer.getCurrentIndex(name);
+            if (index != -1) {
+                return index;
+            }
+            indexer = indexer.parent;
+        } while (indexer != null);
         return -1;
     }
 
@@ -3,10 +3,14 @@ package org.febit.wit.core.ast;
 
 import org.febit.wit.InternalContext;
 
+import java.io.Serializable;
+
 /**
  * @author zqq90
  */
-public abstract class Statement {
+public abstract class Statement implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public final int line;
     public final int column;
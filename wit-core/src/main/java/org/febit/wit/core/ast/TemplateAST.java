@@ -8,42 +8,115 @@ import org.febit.wit.Vars;
 import org.febit.wit.core.VariantIndexer;
 import org.febit.wit.io.Out;
 import org.febit.wit.util.StatementUtil;
+import org.febit.wit.util.StripedObjectPool;
+
+import java.io.Serializable;
 
 /**
  * @author zqq90
  */
-public final class TemplateAST {
+public final class TemplateAST implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final Statement[] statements;
     private final VariantIndexer[] indexers;
     private final int varSize;
     private final long createdAt;
     private final long resourceVersion;
+    /**
+     * Released contexts, created when first used.
+     */
+    private transient volatile StripedObjectPool<InternalContext> contextPool;
 
     public TemplateAST(VariantIndexer[] indexers, Statement[] statements, int varSize, long resourceVersion) {
+        this(indexers, statements, varSize, System.currentTimeMillis(), resourceVersion);
+    }
+
+    private TemplateAST(VariantIndexer[] indexers, Statement[] statements, int varSize,
+                        long createdAt, long resourceVersion) {
         this.indexers = indexers;
         this.statements = statements;
         this.varSize = varSize;
-        this.createdAt = System.currentTimeMillis();
+        this.createdAt = createdAt;
         this.resourceVersion = resourceVersion;
     }
 
+    /**
+     * Create a copy of this AST, which executes the given statements instead.
+     *
+     * @param statements new root statements, should share the var slots of this AST
+     * @return TemplateAST
+     */
+    public TemplateAST withStatements(Statement[] statements) {
+        return new TemplateAST(indexers, statements, varSize, createdAt, resourceVersion);
+    }
+
     public InternalContext execute(Template template, final Out out, Vars rootParams) {
         val context = new InternalContext(template, out, rootParams, indexers, varSize, null);
-        rootParams.exportTo(context::set);
         StatementUtil.execute(this.statements, context);
         //assert context.indexer = 0
         return context;
     }
 
+    /**
+     * Execute with a released context if any, and release the context after executed.
+     * <p>
+     * NOTICE: the context should not be held after executed.
+     *
+     * @param template   template
+     * @param out        out
+     * @param rootParams root params
+     * @since 2.8.0
+     */
+    public void executeReusable(Template template, final Out out, Vars rootParams) {
+        val pool = getContextPool();
+        InternalContext context = pool.poll();
+        if (context == null || context.getTemplate() != template) {
+            context = new InternalContext(template, out, rootParams, indexers, varSize, null);
+        } else {
+            context.reuse(out, rootParams);
+        }
+        try {
+            StatementUtil.execute(this.statements, context);
+        } finally {
+            if (context.isReusable()) {
+                context.clear();
+                pool.offer(context);
+            }
+        }
+    }
+
+    private StripedObjectPool<InternalContext> getContextPool() {
+        StripedObjectPool<InternalContext> pool = this.contextPool;
+        if (pool == null) {
+            pool = new StripedObjectPool<>(Runtime.getRuntime().availableProcessors() * 2);
+            this.contextPool = pool;
+        }
+        return pool;
+    }
+
     public InternalContext execute(Template template, final InternalContext context, Vars rootParams) {
         val newContext = context.createPeerContext(template, indexers, varSize, rootParams);
-        rootParams.exportTo(newContext::set);
         StatementUtil.execute(this.statements, newContext);
         //assert context.indexer = 0
         return newContext;
     }
 
+    /**
+     * Create a copy of this AST, with the given resource version.
+     *
+     * @param resourceVersion resource version
+     * @return TemplateAST
+     */
+    public TemplateAST withResourceVersion(long resourceVersion) {
+        return new TemplateAST(indexers, statements, varSize, createdAt, resourceVersion);
+    }
+
+    public Statement[] getStatements() {
+        return statements;
+    }
+
     public long getCreatedAt() {
         return this.createdAt;
     }
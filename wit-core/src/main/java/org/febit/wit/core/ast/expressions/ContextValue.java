@@ -26,4 +26,8 @@ public final class ContextValue extends AssignableExpression {
         context.vars[index] = value;
         return value;
     }
+
+    public int getIndex() {
+        return index;
+    }
 }
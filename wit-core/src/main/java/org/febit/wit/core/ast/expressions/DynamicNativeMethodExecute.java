@@ -4,21 +4,34 @@ package org.febit.wit.core.ast.expressions;
 import org.febit.wit.InternalContext;
 import org.febit.wit.core.ast.Expression;
 import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.lang.MethodDeclare;
 import org.febit.wit.util.ClassUtil;
 import org.febit.wit.util.JavaNativeUtil;
 import org.febit.wit.util.StatementUtil;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 /**
  * @author zqq90
  */
 public final class DynamicNativeMethodExecute extends Expression {
 
+    /**
+     * Max entries cached by a call site, it turns megamorphic once exceeded.
+     */
+    private static final int MAX_CACHED_ENTRIES = 4;
+
     private final String func;
     private final Expression thisExpr;
     private final Expression[] paramExprs;
 
+    /**
+     * Inline cache of resolved methods, entries are immutable, so it's safe to be published racy.
+     */
+    private transient CacheEntry cache;
+    private transient boolean megamorphic;
+
     public DynamicNativeMethodExecute(Expression thisExpr, String func,
                                       Expression[] paramExprs, int line, int column) {
         super(line, column);
@@ -30,9 +43,44 @@ public final class DynamicNativeMethodExecute extends Expression {
     @Override
     public Object execute(final InternalContext context) {
         Object me = this.thisExpr.execute(context);
-        Method[] methods = getMethods(me);
-        Object[] params = StatementUtil.execute(this.paramExprs, context);
-        return invokeProperMethod(me, methods, params);
+        if (me == null || this.megamorphic) {
+            Method[] methods = getMethods(me);
+            Object[] params = StatementUtil.execute(this.paramExprs, context);
+            return invokeProperMethod(me, methods, params);
+        }
+        final Expression[] exprs = this.paramExprs;
+        final int len = exprs.length;
+        // args of declare: [me, params...]
+        final Object[] args = new Object[len + 1];
+        args[0] = me;
+        for (int i = 0; i < len; i++) {
+            args[i + 1] = exprs[i].execute(context);
+        }
+        for (CacheEntry entry = this.cache; entry != null; entry = entry.next) {
+            if (entry.match(args)) {
+                return entry.declare.invoke(context, args);
+            }
+        }
+        return resolveAndInvoke(context, args);
+    }
+
+    private Object resolveAndInvoke(final InternalContext context, final Object[] args) {
+        final Object me = args[0];
+        final Object[] params = Arrays.copyOfRange(args, 1, args.length);
+        final Method[] methods = getMethods(me);
+        final CacheEntry head = this.cache;
+        if (head != null && head.depth >= MAX_CACHED_ENTRIES) {
+            this.megamorphic = true;
+            this.cache = null;
+            return invokeProperMethod(me, methods, params);
+        }
+        Method method = JavaNativeUtil.getMatchMethod(methods, params);
+        if (method == null) {
+            throw new ScriptRuntimeException("not found match native method: " + me.getClass() + '#' + func);
+        }
+        final MethodDeclare declare = context.getEngine().getNativeFactory().getNativeMethodDeclare(method);
+        this.cache = new CacheEntry(JavaNativeUtil.getArgTypes(args), declare, head);
+        return declare.invoke(context, args);
     }
 
     @Override
@@ -62,4 +110,32 @@ public final class DynamicNativeMethodExecute extends Expression {
         return JavaNativeUtil.invokeMethod(method, me, params);
     }
 
+    private static final class CacheEntry {
+
+        /**
+         * Types of [me, params...], null for null values.
+         */
+        final Class<?>[] types;
+        final MethodDeclare declare;
+        final CacheEntry next;
+        final int depth;
+
+        CacheEntry(Class<?>[] types, MethodDeclare declare, CacheEntry next) {
+            this.types = types;
+            this.declare = declare;
+            this.next = next;
+            this.depth = next != null ? next.depth + 1 : 1;
+        }
+
+        boolean match(final Object[] args) {
+            final Class<?>[] myTypes = this.types;
+            for (int i = 0; i < myTypes.length; i++) {
+                final Object arg = args[i];
+                if (arg == null ? myTypes[i] != null : arg.getClass() != myTypes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
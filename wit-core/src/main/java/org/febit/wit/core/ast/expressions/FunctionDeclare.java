@@ -33,6 +33,7 @@ public final class FunctionDeclare extends Expression {
 
     @Override
     public FunctionMethodDeclare execute(final InternalContext context) {
+        context.markCaptured();
         return new FunctionMethodDeclare(this, context, indexers, this.varSize);
     }
 
@@ -98,7 +98,11 @@ public class FunctionDeclarePart {
     }
 
     public Expression pop(List<Statement> list) {
-        final Expression expr = popFunctionDeclare(list);
+        return pop(StatementUtil.toStatementArray(list));
+    }
+
+    public Expression pop(Statement[] statements) {
+        final Expression expr = popFunctionDeclare(statements);
         if (this.assignToIndex >= 0) {
             return new Assign(new ContextValue(this.assignToIndex, line, column), expr, line, column);
         }
@@ -109,7 +113,7 @@ public class FunctionDeclarePart {
         return popFunctionDeclare(StatementUtil.toStatementArray(list));
     }
 
-    protected FunctionDeclare popFunctionDeclare(Statement[] statements) {
+    public FunctionDeclare popFunctionDeclare(Statement[] statements) {
 
         VariantIndexer[] indexers = varmgr.getIndexers();
         int varSize = varmgr.getVarCount();
@@ -3,7 +3,9 @@ package org.febit.wit.core.ast.operators;
 
 import org.febit.wit.InternalContext;
 import org.febit.wit.core.ast.Expression;
+import org.febit.wit.core.ast.expressions.DirectValue;
 import org.febit.wit.util.ALU;
+import org.febit.wit.util.StatementUtil;
 
 /**
  * @author zqq90
@@ -25,4 +27,12 @@ public final class IfOperator extends Expression {
     public Object execute(final InternalContext context) {
         return (ALU.isTrue(ifExpr.execute(context)) ? leftValueExpr : rightValueExpr).execute(context);
     }
+
+    @Override
+    public Expression optimize() {
+        if (StatementUtil.isImmutableDirectValue(ifExpr)) {
+            return ALU.isTrue(((DirectValue) ifExpr).value) ? leftValueExpr : rightValueExpr;
+        }
+        return this;
+    }
 }
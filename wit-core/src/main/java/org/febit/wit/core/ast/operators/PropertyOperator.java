@@ -4,6 +4,7 @@ package org.febit.wit.core.ast.operators;
 import org.febit.wit.InternalContext;
 import org.febit.wit.core.ast.AssignableExpression;
 import org.febit.wit.core.ast.Expression;
+import org.febit.wit.resolvers.PropertyGetter;
 import org.febit.wit.util.ExceptionUtil;
 
 /**
@@ -11,9 +12,20 @@ import org.febit.wit.util.ExceptionUtil;
  */
 public final class PropertyOperator extends AssignableExpression {
 
+    /**
+     * Max bean types cached by a call site, it turns megamorphic once exceeded.
+     */
+    private static final int MAX_CACHED_TYPES = 4;
+
     private final Expression expr;
     private final String property;
 
+    /**
+     * Inline cache of getters, entries are immutable, so it's safe to be published racy.
+     */
+    private transient CacheEntry cache;
+    private transient boolean megamorphic;
+
     public PropertyOperator(Expression expr, String property, int line, int column) {
         super(line, column);
         this.expr = expr;
@@ -23,14 +35,34 @@ public final class PropertyOperator extends AssignableExpression {
     @Override
     public Object execute(final InternalContext context) {
         try {
-            return context.getBeanProperty(
-                    expr.execute(context),
-                    property);
+            final Object bean = expr.execute(context);
+            if (bean == null || this.megamorphic) {
+                return context.getBeanProperty(bean, property);
+            }
+            final Class<?> type = bean.getClass();
+            for (CacheEntry entry = this.cache; entry != null; entry = entry.next) {
+                if (entry.type == type) {
+                    return entry.getter.get(bean);
+                }
+            }
+            return getAndCache(context, bean, type);
         } catch (Exception e) {
             throw ExceptionUtil.toScriptRuntimeException(e, this);
         }
     }
 
+    private Object getAndCache(final InternalContext context, final Object bean, final Class<?> type) {
+        final CacheEntry head = this.cache;
+        if (head != null && head.depth >= MAX_CACHED_TYPES) {
+            this.megamorphic = true;
+            this.cache = null;
+            return context.getBeanProperty(bean, property);
+        }
+        final PropertyGetter getter = context.resolvePropertyGetter(type, property);
+        this.cache = new CacheEntry(type, getter, head);
+        return getter.get(bean);
+    }
+
     @Override
     public Object setValue(final InternalContext context, final Object value) {
         try {
@@ -42,4 +74,19 @@ public final class PropertyOperator extends AssignableExpression {
             throw ExceptionUtil.toScriptRuntimeException(e, this);
         }
     }
+
+    private static final class CacheEntry {
+
+        final Class<?> type;
+        final PropertyGetter getter;
+        final CacheEntry next;
+        final int depth;
+
+        CacheEntry(Class<?> type, PropertyGetter getter, CacheEntry next) {
+            this.type = type;
+            this.getter = getter;
+            this.next = next;
+            this.depth = next != null ? next.depth + 1 : 1;
+        }
+    }
 }
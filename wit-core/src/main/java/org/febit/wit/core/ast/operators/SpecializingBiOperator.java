@@ -0,0 +1,230 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.core.ast.operators;
+
+import org.febit.wit.InternalContext;
+import org.febit.wit.core.ast.Expression;
+import org.febit.wit.util.ExceptionUtil;
+
+import java.util.function.BiFunction;
+
+/**
+ * Arithmetic and comparison operator, specializes itself by the operand types it sees.
+ * <p>
+ * At first execution, it's specialized to the int, long, double or String path by the operand types, following
+ * executions skip the type dispatching in {@link org.febit.wit.util.ALU}. Once the operand types changed, it falls
+ * back to the generic path forever. Results are always same as the generic path.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class SpecializingBiOperator extends ConstableBiOperator {
+
+    public static final int PLUS = 1;
+    public static final int MINUS = 2;
+    public static final int MULT = 3;
+    public static final int DIV = 4;
+    public static final int MOD = 5;
+    public static final int LT = 6;
+    public static final int GT = 7;
+    public static final int LTEQ = 8;
+    public static final int GTEQ = 9;
+    public static final int EQ = 10;
+    public static final int NOTEQ = 11;
+
+    private static final int UNINITIALIZED = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int STRING = 4;
+    private static final int GENERIC = 5;
+
+    protected final int opcode;
+
+    /**
+     * Type feedback, it's racy but harmless, every state produces same results.
+     */
+    private transient int state;
+
+    public SpecializingBiOperator(Expression leftExpr, Expression rightExpr, int opcode,
+                                  BiFunction<Object, Object, Object> op, int line, int column) {
+        super(leftExpr, rightExpr, op, line, column);
+        this.opcode = opcode;
+    }
+
+    @Override
+    public Object execute(final InternalContext context) {
+        try {
+            return apply(leftExpr.execute(context), rightExpr.execute(context));
+        } catch (Exception e) {
+            throw ExceptionUtil.toScriptRuntimeException(e, this);
+        }
+    }
+
+    private Object apply(final Object left, final Object right) {
+        switch (this.state) {
+            case INT:
+                if (left instanceof Integer && right instanceof Integer) {
+                    return applyInt((Integer) left, (Integer) right);
+                }
+                break;
+            case LONG:
+                if (isLongPair(left, right)) {
+                    return applyLong(((Number) left).longValue(), ((Number) right).longValue());
+                }
+                break;
+            case DOUBLE:
+                if (left instanceof Double && right instanceof Double) {
+                    return applyDouble((Double) left, (Double) right);
+                }
+                break;
+            case STRING:
+                if (left instanceof String && right instanceof String) {
+                    return applyString((String) left, (String) right);
+                }
+                break;
+            case GENERIC:
+                return op.apply(left, right);
+            case UNINITIALIZED:
+            default:
+                this.state = specialize(left, right);
+                return apply(left, right);
+        }
+        // deoptimize
+        this.state = GENERIC;
+        return op.apply(left, right);
+    }
+
+    private int specialize(final Object left, final Object right) {
+        if (left instanceof Integer && right instanceof Integer) {
+            return INT;
+        }
+        if (isLongPair(left, right)) {
+            return LONG;
+        }
+        if (left instanceof Double && right instanceof Double) {
+            return DOUBLE;
+        }
+        if (left instanceof String && right instanceof String
+                && (opcode == PLUS || opcode == EQ || opcode == NOTEQ)) {
+            return STRING;
+        }
+        return GENERIC;
+    }
+
+    /**
+     * Long and long, or long and int, the generic path produces int for int and int.
+     */
+    private static boolean isLongPair(final Object left, final Object right) {
+        if (left instanceof Long) {
+            return right instanceof Long || right instanceof Integer;
+        }
+        return left instanceof Integer && right instanceof Long;
+    }
+
+    private Object applyInt(final int left, final int right) {
+        switch (opcode) {
+            case PLUS:
+                return left + right;
+            case MINUS:
+                return left - right;
+            case MULT:
+                return left * right;
+            case DIV:
+                return left / right;
+            case MOD:
+                return left % right;
+            case LT:
+                return left < right;
+            case GT:
+                return left > right;
+            case LTEQ:
+                return left <= right;
+            case GTEQ:
+                return left >= right;
+            case EQ:
+                return left == right;
+            case NOTEQ:
+                return left != right;
+            default:
+                return op.apply(left, right);
+        }
+    }
+
+    private Object applyLong(final long left, final long right) {
+        switch (opcode) {
+            case PLUS:
+                return left + right;
+            case MINUS:
+                return left - right;
+            case MULT:
+                return left * right;
+            case DIV:
+                return left / right;
+            case MOD:
+                return left % right;
+            case LT:
+                return left < right;
+            case GT:
+                return left > right;
+            case LTEQ:
+                return left <= right;
+            case GTEQ:
+                return left >= right;
+            case EQ:
+                return left == right;
+            case NOTEQ:
+                return left != right;
+            default:
+                return op.apply(left, right);
+        }
+    }
+
+    private Object applyDouble(final double left, final double right) {
+        switch (opcode) {
+            case PLUS:
+                return left + right;
+            case MINUS:
+                return left - right;
+            case MULT:
+                return left * right;
+            case DIV:
+                return left / right;
+            case MOD:
+                return left % right;
+            default:
+        }
+        if (!Double.isFinite(left) || !Double.isFinite(right)) {
+            // generic path compares as BigDecimal, which rejects NaN and infinities
+            return op.apply(left, right);
+        }
+        switch (opcode) {
+            case LT:
+                return left < right;
+            case GT:
+                return left > right;
+            case LTEQ:
+                return left <= right;
+            case GTEQ:
+                return left >= right;
+            case EQ:
+                return left == right;
+            case NOTEQ:
+                return left != right;
+            default:
+                return op.apply(left, right);
+        }
+    }
+
+    private Object applyString(final String left, final String right) {
+        switch (opcode) {
+            case PLUS:
+                return left.concat(right);
+            case EQ:
+                return left.equals(right);
+            case NOTEQ:
+                return !left.equals(right);
+            default:
+                return op.apply(left, right);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.core.ast.statements;
+
+import org.febit.wit.InternalContext;
+import org.febit.wit.core.ast.Expression;
+import org.febit.wit.core.ast.Statement;
+import org.febit.wit.io.Escaper;
+
+/**
+ * Interpolation with outputs escaped.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class EscapedInterpolation extends Statement {
+
+    private final Expression expr;
+    private final Escaper escaper;
+
+    public EscapedInterpolation(Expression expr, Escaper escaper) {
+        super(expr.line, expr.column);
+        this.expr = expr;
+        this.escaper = escaper;
+    }
+
+    @Override
+    public Object execute(final InternalContext context) {
+        context.writeEscaped(expr.execute(context), escaper);
+        return null;
+    }
+
+    public Expression getExpr() {
+        return expr;
+    }
+
+    public Escaper getEscaper() {
+        return escaper;
+    }
+}
@@ -6,6 +6,7 @@ import org.febit.wit.core.LoopInfo;
 import org.febit.wit.core.ast.Expression;
 import org.febit.wit.core.ast.Loopable;
 import org.febit.wit.core.ast.Statement;
+import org.febit.wit.core.ast.expressions.DirectValue;
 import org.febit.wit.util.ALU;
 import org.febit.wit.util.StatementUtil;
 
@@ -33,8 +34,31 @@ public final class If extends Statement implements Loopable {
         return null;
     }
 
+    @Override
+    public Statement optimize() {
+        if (!StatementUtil.isImmutableDirectValue(ifExpr)) {
+            return this;
+        }
+        if (ALU.isTrue(((DirectValue) ifExpr).value)) {
+            return thenStatement;
+        }
+        // keep loops for validation
+        if (collectPossibleLoops().isEmpty()) {
+            return null;
+        }
+        return this;
+    }
+
     @Override
     public List<LoopInfo> collectPossibleLoops() {
         return StatementUtil.collectPossibleLoops(thenStatement);
     }
+
+    public Expression getIfExpr() {
+        return ifExpr;
+    }
+
+    public Statement getThenStatement() {
+        return thenStatement;
+    }
 }
@@ -6,6 +6,7 @@ import org.febit.wit.core.LoopInfo;
 import org.febit.wit.core.ast.Expression;
 import org.febit.wit.core.ast.Loopable;
 import org.febit.wit.core.ast.Statement;
+import org.febit.wit.core.ast.expressions.DirectValue;
 import org.febit.wit.util.ALU;
 import org.febit.wit.util.StatementUtil;
 
@@ -33,8 +34,33 @@ public final class IfElse extends Statement implements Loopable {
                 ? thenStatement : elseStatement).execute(context);
     }
 
+    @Override
+    public Statement optimize() {
+        if (!StatementUtil.isImmutableDirectValue(ifExpr)) {
+            return this;
+        }
+        final boolean isTrue = ALU.isTrue(((DirectValue) ifExpr).value);
+        // keep loops for validation
+        if (StatementUtil.collectPossibleLoops(isTrue ? elseStatement : thenStatement).isEmpty()) {
+            return isTrue ? thenStatement : elseStatement;
+        }
+        return this;
+    }
+
     @Override
     public List<LoopInfo> collectPossibleLoops() {
         return StatementUtil.collectPossibleLoops(thenStatement, elseStatement);
     }
+
+    public Expression getIfExpr() {
+        return ifExpr;
+    }
+
+    public Statement getThenStatement() {
+        return thenStatement;
+    }
+
+    public Statement getElseStatement() {
+        return elseStatement;
+    }
 }
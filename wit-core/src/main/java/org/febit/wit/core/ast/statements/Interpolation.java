@@ -27,4 +27,8 @@ public final class Interpolation extends Statement {
         context.write(expr.execute(context));
         return null;
     }
+
+    public Expression getExpr() {
+        return expr;
+    }
 }
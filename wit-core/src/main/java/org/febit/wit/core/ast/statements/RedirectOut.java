@@ -4,11 +4,7 @@ package org.febit.wit.core.ast.statements;
 import org.febit.wit.InternalContext;
 import org.febit.wit.core.ast.AssignableExpression;
 import org.febit.wit.core.ast.Statement;
-import org.febit.wit.io.impl.OutputStreamOut;
-import org.febit.wit.io.impl.WriterOut;
-
-import java.io.ByteArrayOutputStream;
-import java.io.CharArrayWriter;
+import org.febit.wit.io.impl.CaptureOut;
 
 /**
  * @author zqq90
@@ -26,16 +22,12 @@ public class RedirectOut extends Statement {
 
     @Override
     public Object execute(final InternalContext context) {
-        if (context.isByteStream) {
-            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
-            context.temporaryOut(new OutputStreamOut(out, context.encoding, context.getEngine()),
-                    srcStatement::execute);
-            toExpr.setValue(context, out.toByteArray());
-        } else {
-            CharArrayWriter writer = new CharArrayWriter(256);
-            context.temporaryOut(new WriterOut(writer, context.encoding, context.getEngine()),
-                    srcStatement::execute);
-            toExpr.setValue(context, writer.toCharArray());
+        final CaptureOut out = new CaptureOut(context.encoding, context.isByteStream, context.getEngine());
+        try {
+            context.temporaryOut(out, srcStatement::execute);
+            toExpr.setValue(context, out.snapshot());
+        } finally {
+            out.release();
         }
         return null;
     }
@@ -6,8 +6,12 @@ import org.febit.wit.core.LoopInfo;
 import org.febit.wit.core.ast.Expression;
 import org.febit.wit.core.ast.Loopable;
 import org.febit.wit.core.ast.Statement;
+import org.febit.wit.core.ast.expressions.DirectValue;
 import org.febit.wit.util.StatementUtil;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +48,33 @@ public final class Switch extends Statement implements Loopable {
         return null;
     }
 
+    /**
+     * Only the matched case is kept if the switch value is const, it's flattened into a statement group if no breaks.
+     */
+    @Override
+    public Statement optimize() {
+        // keep loops for validation
+        if (!StatementUtil.isImmutableDirectValue(switchExpr) || !collectPossibleLoops().isEmpty()) {
+            return this;
+        }
+        CaseEntry caseStatement = caseMap.get(((DirectValue) switchExpr).value);
+        if (caseStatement == null) {
+            caseStatement = defaultStatement;
+        }
+        if (caseStatement == null) {
+            return null;
+        }
+        final List<Statement> bodies = new ArrayList<>();
+        for (CaseEntry entry = caseStatement; entry != null; entry = entry.next) {
+            if (!entry.collectPossibleLoops().isEmpty()) {
+                return new Switch(switchExpr, caseStatement,
+                        Collections.singletonMap(null, caseStatement), label, line, column);
+            }
+            bodies.add(entry.body);
+        }
+        return new StatementGroup(bodies.toArray(new Statement[0]), line, column);
+    }
+
     @Override
     public List<LoopInfo> collectPossibleLoops() {
         List<LoopInfo> loopInfos = new LinkedList<>();
@@ -54,7 +85,9 @@ public final class Switch extends Statement implements Loopable {
         return loopInfos;
     }
 
-    static final class CaseEntry {
+    static final class CaseEntry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         final Statement body;
         final CaseEntry next;
@@ -18,7 +18,7 @@ public final class ByteArrayTextStatement extends Statement {
 
     @Override
     public Object execute(final InternalContext context) {
-        context.outNotNull(bytes);
+        context.outImmutable(bytes);
         return null;
     }
 }
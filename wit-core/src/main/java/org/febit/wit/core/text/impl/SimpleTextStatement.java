@@ -3,17 +3,31 @@ package org.febit.wit.core.text.impl;
 
 import org.febit.wit.InternalContext;
 import org.febit.wit.core.ast.Statement;
+import org.febit.wit.exceptions.ScriptRuntimeException;
 import org.febit.wit.util.InternedEncoding;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
 /**
  * @author zqq90
  */
 public final class SimpleTextStatement extends Statement {
 
+    /**
+     * Max count of cached encodings, except the engine's.
+     */
+    private static final int MAX_CACHED_ENCODINGS = 4;
+
     private final InternedEncoding encoding;
     private final char[] text;
     private final byte[] textBytes;
 
+    /**
+     * Bytes of other encodings, filled on first use.
+     */
+    private transient volatile EncodedText encodedTexts;
+
     public SimpleTextStatement(char[] chars, byte[] bytes, InternedEncoding encoding, int line, int column) {
         super(line, column);
         this.text = chars;
@@ -23,11 +37,58 @@ public final class SimpleTextStatement extends Statement {
 
     @Override
     public Object execute(final InternalContext context) {
-        if (context.isByteStream && encoding == context.encoding) {
-            context.outNotNull(textBytes);
-        } else {
+        if (!context.isByteStream) {
             context.outNotNull(text);
+        } else if (encoding == context.encoding) {
+            context.outImmutable(textBytes);
+        } else {
+            final byte[] bytes = getBytes(context);
+            if (bytes != null) {
+                context.outImmutable(bytes);
+            } else {
+                context.outNotNull(text);
+            }
         }
         return null;
     }
+
+    private byte[] getBytes(final InternalContext context) {
+        final InternedEncoding target = context.encoding;
+        final EncodedText head = this.encodedTexts;
+        int count = 0;
+        for (EncodedText node = head; node != null; node = node.next) {
+            if (node.encoding == target) {
+                return node.bytes;
+            }
+            count++;
+        }
+        if (count >= MAX_CACHED_ENCODINGS) {
+            return null;
+        }
+        // encoded by the engine's encoder, same as not cached
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(text.length);
+        try {
+            context.getTemplate().getEngine().getCoderFactory().newEncoder(target)
+                    .write(text, 0, text.length, out);
+        } catch (IOException e) {
+            throw new ScriptRuntimeException(e, this);
+        }
+        final byte[] bytes = out.toByteArray();
+        // racing puts may be lost, that's fine, will be encoded again
+        this.encodedTexts = new EncodedText(target, bytes, head);
+        return bytes;
+    }
+
+    private static final class EncodedText {
+
+        final InternedEncoding encoding;
+        final byte[] bytes;
+        final EncodedText next;
+
+        EncodedText(InternedEncoding encoding, byte[] bytes, EncodedText next) {
+            this.encoding = encoding;
+            this.bytes = bytes;
+            this.next = next;
+        }
+    }
 }
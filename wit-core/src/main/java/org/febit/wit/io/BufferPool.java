@@ -0,0 +1,66 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool of reusable char and byte arrays.
+ * <p>
+ * Implementations should be thread safe, and never block.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public interface BufferPool {
+
+    /**
+     * Get a char array, not less than the given length.
+     *
+     * @param minLength min length
+     * @return char array
+     */
+    char[] getChars(int minLength);
+
+    /**
+     * Get a byte array, not less than the given length.
+     *
+     * @param minLength min length
+     * @return byte array
+     */
+    byte[] getBytes(int minLength);
+
+    /**
+     * Return the array to this pool, it should not be used after released.
+     *
+     * @param chars char array
+     */
+    void release(char[] chars);
+
+    /**
+     * Return the array to this pool, it should not be used after released.
+     *
+     * @param bytes byte array
+     */
+    void release(byte[] bytes);
+
+    /**
+     * Get a cleared direct byte buffer, capacity not less than the given one.
+     * <p>
+     * Not pooled by default.
+     *
+     * @param minCapacity min capacity
+     * @return direct byte buffer
+     */
+    default ByteBuffer getDirectBuffer(int minCapacity) {
+        return ByteBuffer.allocateDirect(minCapacity);
+    }
+
+    /**
+     * Return the buffer to this pool, it should not be used after released.
+     *
+     * @param buffer direct byte buffer
+     */
+    default void release(ByteBuffer buffer) {
+        // not pooled by default
+    }
+}
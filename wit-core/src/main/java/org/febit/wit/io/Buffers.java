@@ -11,15 +11,28 @@ import java.lang.ref.WeakReference;
 public final class Buffers {
 
     private static final ThreadLocal<WeakReference<Buffers>> CACHE = new ThreadLocal<>();
+    private static final char[] EMPTY_CHARS = {};
+    private static final byte[] EMPTY_BYTES = {};
 
+    /**
+     * Pool of arrays, null if buffers are kept by this.
+     */
+    private final BufferPool pool;
     private char[] chars;
     private byte[] bytes;
 
     private Buffers(int size) {
+        this.pool = null;
         this.chars = new char[size];
         this.bytes = new byte[size];
     }
 
+    private Buffers(BufferPool pool) {
+        this.pool = pool;
+        this.chars = EMPTY_CHARS;
+        this.bytes = EMPTY_BYTES;
+    }
+
     public char[] getChars(final int len) {
         val buf = chars;
         return buf.length >= len ? buf : upgradeChars(len);
@@ -29,6 +42,10 @@ public final class Buffers {
             "squid:AssignmentInSubExpressionCheck"
     })
     private char[] upgradeChars(final int len) {
+        if (pool != null) {
+            releaseChars();
+            return this.chars = pool.getChars(len);
+        }
         return this.chars = new char[getAllocateLength(this.chars.length, len)];
     }
 
@@ -41,9 +58,40 @@ public final class Buffers {
             "squid:AssignmentInSubExpressionCheck"
     })
     private byte[] upgradeBytes(final int len) {
+        if (pool != null) {
+            releaseBytes();
+            return this.bytes = pool.getBytes(len);
+        }
         return this.bytes = new byte[getAllocateLength(this.bytes.length, len)];
     }
 
+    /**
+     * Return arrays to the pool, if borrowed from a pool.
+     *
+     * @since 2.8.0
+     */
+    public void release() {
+        if (pool == null) {
+            return;
+        }
+        releaseChars();
+        releaseBytes();
+    }
+
+    private void releaseChars() {
+        if (this.chars.length != 0) {
+            pool.release(this.chars);
+            this.chars = EMPTY_CHARS;
+        }
+    }
+
+    private void releaseBytes() {
+        if (this.bytes.length != 0) {
+            pool.release(this.bytes);
+            this.bytes = EMPTY_BYTES;
+        }
+    }
+
     private static int getAllocateLength(final int init, final int length) {
         int value = init;
         for (; ; ) {
@@ -58,6 +106,22 @@ public final class Buffers {
         }
     }
 
+    /**
+     * Create buffers, arrays are borrowed from the pool, and should be returned by {@link #release()} after used.
+     * <p>
+     * Buffers are still usable after released, arrays will be borrowed again.
+     *
+     * @param pool buffer pool, the per thread peers are used if null
+     * @return buffers
+     * @since 2.8.0
+     */
+    public static Buffers borrow(BufferPool pool) {
+        if (pool == null) {
+            return getNormalPeers();
+        }
+        return new Buffers(pool);
+    }
+
     public static Buffers getNormalPeers() {
         return createIfAbsent(1 << 8); //DEFAULT_SIZE 256
     }
@@ -0,0 +1,215 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Table driven escapers, runs of chars those need no escaping are written in bulk.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public enum Escaper {
+
+    /**
+     * Escapes {@code & < > " '} for HTML texts and attribute values.
+     */
+    HTML(false, "&", "&amp;", "<", "&lt;", ">", "&gt;", "\"", "&quot;", "'", "&#39;"),
+    /**
+     * Escapes {@code & < > " '} for XML texts and attribute values.
+     */
+    XML(false, "&", "&amp;", "<", "&lt;", ">", "&gt;", "\"", "&quot;", "'", "&apos;"),
+    /**
+     * Escapes for JavaScript string literals, also safe in HTML script blocks.
+     */
+    JS(true, "\\", "\\\\", "'", "\\'", "\"", "\\\"", "/", "\\/", "<", "\\u003C", ">", "\\u003E", "&", "\\u0026",
+            "\b", "\\b", "\t", "\\t", "\n", "\\n", "\f", "\\f", "\r", "\\r");
+
+    private static final int TABLE_SIZE = 128;
+
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+    private static final char[] LINE_SEPARATOR_CHARS = "\\u2028".toCharArray();
+    private static final char[] PARAGRAPH_SEPARATOR_CHARS = "\\u2029".toCharArray();
+    private static final byte[] LINE_SEPARATOR_BYTES = "\\u2028".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PARAGRAPH_SEPARATOR_BYTES = "\\u2029".getBytes(StandardCharsets.US_ASCII);
+
+    private final char[][] chars;
+    private final byte[][] bytes;
+    /**
+     * If escapes U+2028 and U+2029, line terminators in JavaScript.
+     */
+    private final boolean lineSeparators;
+
+    Escaper(boolean escapeControls, String... pairs) {
+        this.chars = new char[TABLE_SIZE][];
+        this.bytes = new byte[TABLE_SIZE][];
+        if (escapeControls) {
+            for (int i = 0; i < 0x20; i++) {
+                setReplacement(i, String.format("\\u%04X", i));
+            }
+            setReplacement(0x7F, "\\u007F");
+        }
+        for (int i = 0; i < pairs.length; i += 2) {
+            setReplacement(pairs[i].charAt(0), pairs[i + 1]);
+        }
+        this.lineSeparators = escapeControls;
+    }
+
+    private void setReplacement(int c, String replacement) {
+        this.chars[c] = replacement.toCharArray();
+        this.bytes[c] = replacement.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Get escaper by name, case insensitive.
+     *
+     * @param name name, such as "html", "xml", "js"
+     * @return escaper, null if name is empty or "none"
+     * @throws IllegalArgumentException if unsupported
+     */
+    public static Escaper of(String name) {
+        if (name == null) {
+            return null;
+        }
+        name = name.trim();
+        if (name.isEmpty() || "none".equalsIgnoreCase(name)) {
+            return null;
+        }
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    private char[] replacementOf(final char c) {
+        if (c < TABLE_SIZE) {
+            return this.chars[c];
+        }
+        if (lineSeparators) {
+            if (c == LINE_SEPARATOR) {
+                return LINE_SEPARATOR_CHARS;
+            }
+            if (c == PARAGRAPH_SEPARATOR) {
+                return PARAGRAPH_SEPARATOR_CHARS;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Escape the string.
+     *
+     * @param string string
+     * @return escaped, the same instance if nothing escaped
+     */
+    public String escape(final String string) {
+        final int len = string.length();
+        int pos = 0;
+        StringBuilder buf = null;
+        for (int i = 0; i < len; i++) {
+            final char[] replacement = replacementOf(string.charAt(i));
+            if (replacement == null) {
+                continue;
+            }
+            if (buf == null) {
+                buf = new StringBuilder(len + 16);
+            }
+            buf.append(string, pos, i).append(replacement);
+            pos = i + 1;
+        }
+        if (buf == null) {
+            return string;
+        }
+        return buf.append(string, pos, len).toString();
+    }
+
+    public void write(final Out out, final String string, final int offset, final int length) {
+        final char[][] table = this.chars;
+        final int end = offset + length;
+        int pos = offset;
+        for (int i = offset; i < end; i++) {
+            final char c = string.charAt(i);
+            final char[] replacement = c < TABLE_SIZE ? table[c] : replacementOf(c);
+            if (replacement == null) {
+                continue;
+            }
+            if (i > pos) {
+                out.write(string, pos, i - pos);
+            }
+            out.write(replacement);
+            pos = i + 1;
+        }
+        if (end > pos) {
+            out.write(string, pos, end - pos);
+        }
+    }
+
+    public void write(final Out out, final String string) {
+        write(out, string, 0, string.length());
+    }
+
+    public void write(final Out out, final char[] text, final int offset, final int length) {
+        final char[][] table = this.chars;
+        final int end = offset + length;
+        int pos = offset;
+        for (int i = offset; i < end; i++) {
+            final char c = text[i];
+            final char[] replacement = c < TABLE_SIZE ? table[c] : replacementOf(c);
+            if (replacement == null) {
+                continue;
+            }
+            if (i > pos) {
+                out.write(text, pos, i - pos);
+            }
+            out.write(replacement);
+            pos = i + 1;
+        }
+        if (end > pos) {
+            out.write(text, pos, end - pos);
+        }
+    }
+
+    /**
+     * Escape UTF-8 bytes, bytes of multi-byte chars never conflict with ASCII.
+     *
+     * @param out    out
+     * @param utf8   UTF-8 bytes
+     * @param offset offset
+     * @param length length
+     */
+    public void writeUtf8(final Out out, final byte[] utf8, final int offset, final int length) {
+        final byte[][] table = this.bytes;
+        final int end = offset + length;
+        int pos = offset;
+        int i = offset;
+        while (i < end) {
+            final byte b = utf8[i];
+            final byte[] replacement;
+            int size = 1;
+            if (b >= 0) {
+                replacement = table[b];
+            } else if (lineSeparators && b == (byte) 0xE2 && i + 2 < end && utf8[i + 1] == (byte) 0x80
+                    && (utf8[i + 2] == (byte) 0xA8 || utf8[i + 2] == (byte) 0xA9)) {
+                // U+2028, U+2029
+                replacement = utf8[i + 2] == (byte) 0xA8
+                        ? LINE_SEPARATOR_BYTES
+                        : PARAGRAPH_SEPARATOR_BYTES;
+                size = 3;
+            } else {
+                replacement = null;
+            }
+            if (replacement == null) {
+                i++;
+                continue;
+            }
+            if (i > pos) {
+                out.write(utf8, pos, i - pos);
+            }
+            out.write(replacement);
+            i += size;
+            pos = i;
+        }
+        if (end > pos) {
+            out.write(utf8, pos, end - pos);
+        }
+    }
+}
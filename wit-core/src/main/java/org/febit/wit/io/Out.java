@@ -12,6 +12,18 @@ public interface Out {
 
     void write(byte[] bytes);
 
+    /**
+     * Write bytes those will never be modified, such as pre-encoded texts of templates.
+     * <p>
+     * Implementations may hold the array without copying.
+     *
+     * @param bytes bytes
+     * @since 2.8.0
+     */
+    default void writeImmutable(byte[] bytes) {
+        write(bytes);
+    }
+
     void write(char[] chars, int offset, int length);
 
     void write(char[] chars);
@@ -20,6 +32,36 @@ public interface Out {
 
     void write(String string);
 
+    /**
+     * Write the int value, same as {@code write(String.valueOf(value))}.
+     *
+     * @param value value
+     * @since 2.8.0
+     */
+    default void writeInt(int value) {
+        writeLong(value);
+    }
+
+    /**
+     * Write the long value, same as {@code write(String.valueOf(value))}.
+     *
+     * @param value value
+     * @since 2.8.0
+     */
+    default void writeLong(long value) {
+        write(String.valueOf(value));
+    }
+
+    /**
+     * Write the double value, same as {@code write(String.valueOf(value))}.
+     *
+     * @param value value
+     * @since 2.8.0
+     */
+    default void writeDouble(double value) {
+        write(String.valueOf(value));
+    }
+
     InternedEncoding getEncoding();
 
     boolean isByteStream();
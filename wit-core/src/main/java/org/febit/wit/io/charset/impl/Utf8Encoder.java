@@ -32,13 +32,11 @@ public final class Utf8Encoder implements Encoder {
 
     @Override
     public void write(final String string, final int off, final int len, final OutputStream out) throws IOException {
-        if (string == null) {
+        if (string == null || len == 0) {
             return;
         }
-        val chars = this.buffers.getChars(len);
-        string.getChars(off, off + len, chars, 0);
         val bytes = this.buffers.getBytes(len * Utf8.MAX_BYTES_PER_CHAR);
-        int used = Utf8.encode(bytes, chars, off, off + len);
+        int used = Utf8.encode(bytes, string, off, off + len);
         out.write(bytes, 0, used);
     }
 }
@@ -0,0 +1,359 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.Engine;
+import org.febit.wit.io.BufferPool;
+import org.febit.wit.io.Buffers;
+import org.febit.wit.io.Out;
+import org.febit.wit.util.InternedEncoding;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Captures outputs in segments, bytes if byte stream, otherwise chars.
+ * <p>
+ * Segments are borrowed from the buffer pool and grow with the captured size, so contents are never copied for
+ * growing. Large immutable bytes are referred without copying. Contents could be replayed by
+ * {@link #writeTo(Out)}, or copied to a compact array by {@link #snapshot()}. Segments should be returned by
+ * {@link #release()} after used.
+ * <p>
+ * NOTICE: Not thread safe.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class CaptureOut implements Out {
+
+    private static final int MIN_SEGMENT_SIZE = 1 << 8;
+    private static final int MAX_SEGMENT_SIZE = 1 << 14;
+    /**
+     * Shorter immutable bytes are copied, cheaper than a segment.
+     */
+    private static final int MIN_SHARED_SIZE = 64;
+
+    private final InternedEncoding encoding;
+    private final boolean byteStream;
+    private final BufferPool pool;
+    private final Buffers buffers;
+    private final Out out;
+
+    /**
+     * Segments, byte[] or char[], with offsets and lengths.
+     */
+    private Object[] arrays;
+    private int[] offsets;
+    private int[] lengths;
+    /**
+     * If the segment is immutable bytes.
+     */
+    private boolean[] shared;
+    private int count;
+
+    /**
+     * Arrays borrowed from the pool.
+     */
+    private Object[] borrowed;
+    private int borrowedCount;
+
+    /**
+     * Current writing array, contents from {@code mark} to {@code pos} are not added to segments yet.
+     */
+    private Object buf;
+    private int capacity;
+    private int mark;
+    private int pos;
+    private int size;
+
+    public CaptureOut(InternedEncoding encoding, boolean byteStream, Engine engine) {
+        this.encoding = encoding != null ? encoding : engine.getEncoding();
+        this.byteStream = byteStream;
+        this.pool = engine.getBufferPool();
+        this.buffers = Buffers.borrow(this.pool);
+        this.arrays = new Object[8];
+        this.offsets = new int[8];
+        this.lengths = new int[8];
+        this.shared = new boolean[8];
+        this.borrowed = new Object[4];
+        this.out = byteStream
+                ? new OutputStreamOut(new ByteSink(), this.encoding, engine.getCoderFactory(), this.buffers)
+                : new WriterOut(new CharSink(), this.encoding, engine.getCoderFactory(), this.buffers);
+    }
+
+    /**
+     * Size of captured, in bytes if byte stream, otherwise in chars.
+     *
+     * @return size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Replay captured contents to the given out, without copying.
+     *
+     * @param target out
+     */
+    public void writeTo(final Out target) {
+        addSegment();
+        final Object[] segs = this.arrays;
+        final int[] offs = this.offsets;
+        final int[] lens = this.lengths;
+        final boolean[] shares = this.shared;
+        for (int i = 0, len = this.count; i < len; i++) {
+            final Object array = segs[i];
+            if (byteStream) {
+                if (shares[i]) {
+                    target.writeImmutable((byte[]) array);
+                } else {
+                    target.write((byte[]) array, offs[i], lens[i]);
+                }
+            } else {
+                target.write((char[]) array, offs[i], lens[i]);
+            }
+        }
+    }
+
+    /**
+     * Copy captured contents to a compact array, which could be held after this released.
+     *
+     * @return byte[] if byte stream, otherwise char[]
+     */
+    public Object snapshot() {
+        addSegment();
+        final Object result = byteStream ? new byte[size] : new char[size];
+        int offset = 0;
+        for (int i = 0, len = this.count; i < len; i++) {
+            System.arraycopy(arrays[i], offsets[i], result, offset, lengths[i]);
+            offset += lengths[i];
+        }
+        return result;
+    }
+
+    /**
+     * Return segments to the pool, and reset.
+     */
+    public void release() {
+        final BufferPool bufferPool = this.pool;
+        if (bufferPool != null) {
+            for (int i = 0; i < borrowedCount; i++) {
+                if (byteStream) {
+                    bufferPool.release((byte[]) borrowed[i]);
+                } else {
+                    bufferPool.release((char[]) borrowed[i]);
+                }
+            }
+        }
+        Arrays.fill(this.borrowed, 0, this.borrowedCount, null);
+        Arrays.fill(this.arrays, 0, this.count, null);
+        this.borrowedCount = 0;
+        this.count = 0;
+        this.buf = null;
+        this.capacity = 0;
+        this.mark = 0;
+        this.pos = 0;
+        this.size = 0;
+        this.buffers.release();
+    }
+
+    private void addSegment() {
+        final int start = this.mark;
+        final int end = this.pos;
+        if (end > start) {
+            addSegment(this.buf, start, end - start, false);
+            this.mark = end;
+        }
+    }
+
+    private void addSegment(final Object array, final int offset, final int length, final boolean immutable) {
+        final int index = this.count;
+        if (index == this.arrays.length) {
+            final int newLength = index << 1;
+            this.arrays = Arrays.copyOf(this.arrays, newLength);
+            this.offsets = Arrays.copyOf(this.offsets, newLength);
+            this.lengths = Arrays.copyOf(this.lengths, newLength);
+            this.shared = Arrays.copyOf(this.shared, newLength);
+        }
+        this.arrays[index] = array;
+        this.offsets[index] = offset;
+        this.lengths[index] = length;
+        this.shared[index] = immutable;
+        this.count = index + 1;
+    }
+
+    /**
+     * Add current contents to segments, and switch to a new array.
+     */
+    private void nextBuffer() {
+        addSegment();
+        // grows with the captured size
+        final int newCapacity = Math.min(MAX_SEGMENT_SIZE,
+                Math.max(MIN_SEGMENT_SIZE, Integer.highestOneBit(this.size)));
+        final BufferPool bufferPool = this.pool;
+        final Object array;
+        if (bufferPool == null) {
+            array = byteStream ? new byte[newCapacity] : new char[newCapacity];
+        } else {
+            array = byteStream ? bufferPool.getBytes(newCapacity) : bufferPool.getChars(newCapacity);
+            if (this.borrowedCount == this.borrowed.length) {
+                this.borrowed = Arrays.copyOf(this.borrowed, this.borrowedCount << 1);
+            }
+            this.borrowed[this.borrowedCount++] = array;
+        }
+        this.buf = array;
+        this.capacity = byteStream ? ((byte[]) array).length : ((char[]) array).length;
+        this.mark = 0;
+        this.pos = 0;
+    }
+
+    /**
+     * Copy from the source array, byte[] or char[] same as this.
+     */
+    private void append(final Object src, int offset, int length) {
+        this.size += length;
+        while (length > 0) {
+            if (this.pos == this.capacity) {
+                nextBuffer();
+            }
+            final int n = Math.min(length, this.capacity - this.pos);
+            System.arraycopy(src, offset, this.buf, this.pos, n);
+            this.pos += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+        if (byteStream) {
+            append(bytes, offset, length);
+            return;
+        }
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void write(final byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeImmutable(final byte[] bytes) {
+        if (!byteStream || bytes.length < MIN_SHARED_SIZE) {
+            write(bytes, 0, bytes.length);
+            return;
+        }
+        addSegment();
+        addSegment(bytes, 0, bytes.length, true);
+        this.size += bytes.length;
+    }
+
+    @Override
+    public void write(final char[] chars, final int offset, final int length) {
+        if (!byteStream) {
+            append(chars, offset, length);
+            return;
+        }
+        out.write(chars, offset, length);
+    }
+
+    @Override
+    public void write(final char[] chars) {
+        write(chars, 0, chars.length);
+    }
+
+    @Override
+    public void write(final String string, final int offset, final int length) {
+        out.write(string, offset, length);
+    }
+
+    @Override
+    public void write(final String string) {
+        out.write(string, 0, string.length());
+    }
+
+    @Override
+    public void writeInt(final int value) {
+        out.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        out.writeLong(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        out.writeDouble(value);
+    }
+
+    @Override
+    public InternedEncoding getEncoding() {
+        return this.encoding;
+    }
+
+    @Override
+    public boolean isByteStream() {
+        return this.byteStream;
+    }
+
+    private final class ByteSink extends OutputStream {
+
+        @Override
+        public void write(final int b) {
+            if (pos == capacity) {
+                nextBuffer();
+            }
+            ((byte[]) buf)[pos++] = (byte) b;
+            size++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            append(bytes, offset, length);
+        }
+    }
+
+    private final class CharSink extends Writer {
+
+        @Override
+        public void write(final int c) {
+            if (pos == capacity) {
+                nextBuffer();
+            }
+            ((char[]) buf)[pos++] = (char) c;
+            size++;
+        }
+
+        @Override
+        public void write(final char[] chars, final int offset, final int length) {
+            CaptureOut.this.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(final String string, int offset, int length) {
+            size += length;
+            while (length > 0) {
+                if (pos == capacity) {
+                    nextBuffer();
+                }
+                final int n = Math.min(length, capacity - pos);
+                string.getChars(offset, offset + n, (char[]) buf, pos);
+                pos += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void flush() {
+            // no-op
+        }
+
+        @Override
+        public void close() {
+            // no-op
+        }
+    }
+}
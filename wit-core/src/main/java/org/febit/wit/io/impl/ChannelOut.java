@@ -0,0 +1,299 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import lombok.val;
+import org.febit.wit.Engine;
+import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.io.BufferPool;
+import org.febit.wit.io.Buffers;
+import org.febit.wit.io.Out;
+import org.febit.wit.io.charset.CoderFactory;
+import org.febit.wit.io.charset.Encoder;
+import org.febit.wit.util.InternedEncoding;
+import org.febit.wit.util.NumberFormatUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Out to a {@link WritableByteChannel}.
+ * <p>
+ * Pre-encoded texts are held as read-only slices without copying, other outputs are packed in a direct buffer,
+ * both are written by one gathering write once the buffer is full. Remains are written at {@link #finish()}.
+ * The buffer is taken from the buffer pool of the engine if given, and returned at {@link #finish()}.
+ * <p>
+ * NOTICE: Not thread safe, blocking channels are expected.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class ChannelOut implements Out {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Shorter texts are copied, cheaper than a slice.
+     */
+    private static final int MIN_SLICE_SIZE = 64;
+    private static final int MAX_SEGMENTS = 64;
+
+    private final WritableByteChannel channel;
+    private final InternedEncoding encoding;
+    private final Encoder encoder;
+    private final OutputStream encoderSink;
+    private final ByteBuffer[] segments;
+    private final byte[] numberBytes;
+    private final BufferPool pool;
+
+    private ByteBuffer buffer;
+    private int segmentCount;
+    /**
+     * Start of the bytes in buffer those not sliced yet.
+     */
+    private int mark;
+
+    public ChannelOut(WritableByteChannel channel, InternedEncoding encoding, CoderFactory coderFactory,
+                      int bufferSize) {
+        this(channel, encoding, coderFactory.newEncoder(encoding), bufferSize, null);
+    }
+
+    public ChannelOut(WritableByteChannel channel, InternedEncoding encoding, Engine engine) {
+        this(channel, encoding != null ? encoding : engine.getEncoding(), engine.getCoderFactory(), null,
+                engine.getBufferPool());
+    }
+
+    public ChannelOut(WritableByteChannel channel, InternedEncoding encoding, Engine engine, Buffers buffers) {
+        this(channel, encoding != null ? encoding : engine.getEncoding(), engine.getCoderFactory(), buffers,
+                engine.getBufferPool());
+    }
+
+    private ChannelOut(WritableByteChannel channel, InternedEncoding encoding, CoderFactory coderFactory,
+                       Buffers buffers, BufferPool pool) {
+        this(channel, encoding, buffers != null
+                        ? coderFactory.newEncoder(encoding, buffers)
+                        : coderFactory.newEncoder(encoding),
+                DEFAULT_BUFFER_SIZE, pool);
+    }
+
+    private ChannelOut(WritableByteChannel channel, InternedEncoding encoding, Encoder encoder, int bufferSize,
+                       BufferPool pool) {
+        this.channel = channel;
+        this.encoding = encoding;
+        this.encoder = encoder;
+        this.encoderSink = new EncoderSink();
+        this.segments = new ByteBuffer[MAX_SEGMENTS];
+        this.numberBytes = new byte[NumberFormatUtil.MAX_LENGTH];
+        this.pool = pool;
+        this.buffer = pool != null ? pool.getDirectBuffer(bufferSize) : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(final byte[] bytes, int offset, int length) {
+        final ByteBuffer buf = this.buffer;
+        try {
+            if (buf == null) {
+                writeFully(ByteBuffer.wrap(bytes, offset, length));
+                return;
+            }
+            if (length >= buf.capacity()) {
+                // write directly, since the array may be modified after
+                ensureSegments(2);
+                sliceBuffer();
+                segments[segmentCount++] = ByteBuffer.wrap(bytes, offset, length);
+                writeSegments();
+                return;
+            }
+            while (length > 0) {
+                final int n = Math.min(length, buf.remaining());
+                buf.put(bytes, offset, n);
+                offset += n;
+                length -= n;
+                if (!buf.hasRemaining()) {
+                    writeSegments();
+                }
+            }
+        } catch (IOException ex) {
+            throw new ScriptRuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void write(final byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeImmutable(final byte[] bytes) {
+        if (this.buffer == null || bytes.length < MIN_SLICE_SIZE) {
+            write(bytes, 0, bytes.length);
+            return;
+        }
+        try {
+            // keep one for the bytes in buffer
+            ensureSegments(3);
+        } catch (IOException ex) {
+            throw new ScriptRuntimeException(ex);
+        }
+        sliceBuffer();
+        segments[segmentCount++] = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void write(final char[] chars, final int offset, final int length) {
+        try {
+            this.encoder.write(chars, offset, length, this.encoderSink);
+        } catch (IOException ex) {
+            throw new ScriptRuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void write(final char[] chars) {
+        write(chars, 0, chars.length);
+    }
+
+    @Override
+    public void write(final String string, final int offset, final int length) {
+        try {
+            this.encoder.write(string, offset, length, this.encoderSink);
+        } catch (IOException ex) {
+            throw new ScriptRuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void write(final String string) {
+        write(string, 0, string.length());
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        if (this.encoding != InternedEncoding.UTF_8) {
+            write(String.valueOf(value));
+            return;
+        }
+        val bytes = this.numberBytes;
+        write(bytes, 0, NumberFormatUtil.format(value, bytes, 0));
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        if (this.encoding == InternedEncoding.UTF_8) {
+            val bytes = this.numberBytes;
+            final int end = NumberFormatUtil.format(value, bytes, 0);
+            if (end >= 0) {
+                write(bytes, 0, end);
+                return;
+            }
+        }
+        write(Double.toString(value));
+    }
+
+    private void ensureSegments(final int count) throws IOException {
+        if (segmentCount + count > segments.length) {
+            writeSegments();
+        }
+    }
+
+    private void sliceBuffer() {
+        final ByteBuffer buf = this.buffer;
+        final int position = buf.position();
+        if (position > mark) {
+            final ByteBuffer slice = buf.duplicate();
+            slice.position(mark);
+            slice.limit(position);
+            segments[segmentCount++] = slice;
+            mark = position;
+        }
+    }
+
+    private void writeSegments() throws IOException {
+        sliceBuffer();
+        final ByteBuffer[] segs = this.segments;
+        final int count = this.segmentCount;
+        try {
+            if (channel instanceof GatheringByteChannel) {
+                final GatheringByteChannel gathering = (GatheringByteChannel) channel;
+                int index = 0;
+                while (index < count) {
+                    gathering.write(segs, index, count - index);
+                    while (index < count && !segs[index].hasRemaining()) {
+                        index++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    writeFully(segs[i]);
+                }
+            }
+        } finally {
+            Arrays.fill(segs, 0, count, null);
+            this.segmentCount = 0;
+            this.buffer.clear();
+            this.mark = 0;
+        }
+    }
+
+    private void writeFully(final ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    /**
+     * Write remains to the channel, and release the buffer, following writes go to the channel directly.
+     * <p>
+     * NOTICE: the channel is not closed.
+     *
+     * @throws IOException if failed to write
+     */
+    public void finish() throws IOException {
+        final ByteBuffer buf = this.buffer;
+        if (buf == null) {
+            return;
+        }
+        try {
+            writeSegments();
+        } finally {
+            this.buffer = null;
+            if (pool != null) {
+                pool.release(buf);
+            }
+        }
+    }
+
+    @Override
+    public InternedEncoding getEncoding() {
+        return this.encoding;
+    }
+
+    @Override
+    public boolean isByteStream() {
+        return true;
+    }
+
+    private final class EncoderSink extends OutputStream {
+
+        @Override
+        public void write(final int b) throws IOException {
+            final ByteBuffer buf = buffer;
+            if (buf == null) {
+                writeFully(ByteBuffer.wrap(new byte[]{(byte) b}));
+                return;
+            }
+            buf.put((byte) b);
+            if (!buf.hasRemaining()) {
+                writeSegments();
+            }
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            ChannelOut.this.write(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.io.BufferPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Packs small writes into chunks, the sink only gets full chunks and large writes, remains are written at
+ * {@link #finish()}.
+ * <p>
+ * NOTICE: Not thread safe, chunks are taken from the given pool, and returned at {@link #finish()}.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class ChunkedOutputStream extends OutputStream {
+
+    private final OutputStream sink;
+    private final BufferPool pool;
+    private final int chunkSize;
+    private byte[] chunk;
+    private int count;
+
+    public ChunkedOutputStream(OutputStream sink, int chunkSize) {
+        this(sink, chunkSize, null);
+    }
+
+    /**
+     * @param sink      sink
+     * @param chunkSize chunk size
+     * @param pool      pool of chunks, nullable
+     */
+    public ChunkedOutputStream(OutputStream sink, int chunkSize, BufferPool pool) {
+        this.sink = sink;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        // pooled arrays may be larger than the chunk size
+        this.chunk = pool != null ? pool.getBytes(chunkSize) : new byte[chunkSize];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        final byte[] buf = this.chunk;
+        if (buf == null) {
+            sink.write(b);
+            return;
+        }
+        buf[count++] = (byte) b;
+        if (count == chunkSize) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void write(final byte[] bytes, int off, int len) throws IOException {
+        final byte[] buf = this.chunk;
+        if (buf == null) {
+            sink.write(bytes, off, len);
+            return;
+        }
+        while (len > 0) {
+            if (count == 0 && len >= chunkSize) {
+                sink.write(bytes, off, len);
+                return;
+            }
+            final int n = Math.min(len, chunkSize - count);
+            System.arraycopy(bytes, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == chunkSize) {
+                writeChunk();
+            }
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        if (count != 0) {
+            sink.write(chunk, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Write remains to the sink, and release the chunk, following writes go to the sink directly.
+     * <p>
+     * NOTICE: the sink is not flushed or closed.
+     *
+     * @throws IOException if failed to write
+     */
+    public void finish() throws IOException {
+        final byte[] buf = this.chunk;
+        if (buf == null) {
+            return;
+        }
+        try {
+            writeChunk();
+        } finally {
+            this.chunk = null;
+            this.count = 0;
+            if (pool != null) {
+                pool.release(buf);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (chunk != null) {
+            writeChunk();
+        }
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            sink.close();
+        }
+    }
+}
@@ -57,6 +57,21 @@ public class DiscardOut implements Out {
         // Do nothing
     }
 
+    @Override
+    public void writeInt(int value) {
+        // Do nothing
+    }
+
+    @Override
+    public void writeLong(long value) {
+        // Do nothing
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        // Do nothing
+    }
+
     @Override
     public InternedEncoding getEncoding() {
         return encoding;
@@ -0,0 +1,97 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.febit.wit.io.Escaper;
+import org.febit.wit.io.Out;
+import org.febit.wit.util.InternedEncoding;
+
+import java.nio.charset.Charset;
+
+/**
+ * Escapes all outputs to the wrapped out.
+ * <p>
+ * Bytes are escaped directly if encoding is UTF-8, numbers are written without escaping.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class EscapingOut implements Out {
+
+    @Getter
+    private final Escaper escaper;
+    @Getter
+    @Setter
+    private Out out;
+
+    public EscapingOut(Escaper escaper, Out out) {
+        this.escaper = escaper;
+        this.out = out;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+        final InternedEncoding encoding = out.getEncoding();
+        if (encoding == InternedEncoding.UTF_8) {
+            escaper.writeUtf8(out, bytes, offset, length);
+            return;
+        }
+        escaper.write(out, new String(bytes, offset, length, Charset.forName(encoding.value)));
+    }
+
+    @Override
+    public void write(final byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeImmutable(final byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(final char[] chars, final int offset, final int length) {
+        escaper.write(out, chars, offset, length);
+    }
+
+    @Override
+    public void write(final char[] chars) {
+        escaper.write(out, chars, 0, chars.length);
+    }
+
+    @Override
+    public void write(final String string, final int offset, final int length) {
+        escaper.write(out, string, offset, length);
+    }
+
+    @Override
+    public void write(final String string) {
+        escaper.write(out, string, 0, string.length());
+    }
+
+    @Override
+    public void writeInt(final int value) {
+        out.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(final long value) {
+        out.writeLong(value);
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        out.writeDouble(value);
+    }
+
+    @Override
+    public InternedEncoding getEncoding() {
+        return out.getEncoding();
+    }
+
+    @Override
+    public boolean isByteStream() {
+        return out.isByteStream();
+    }
+}
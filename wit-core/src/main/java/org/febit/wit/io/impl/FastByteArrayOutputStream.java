@@ -0,0 +1,60 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Unsynchronized {@link java.io.ByteArrayOutputStream}, for one-shot outputs with a presized buffer.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class FastByteArrayOutputStream extends OutputStream {
+
+    private byte[] buf;
+    private int count;
+
+    public FastByteArrayOutputStream(int size) {
+        this.buf = new byte[Math.max(size, 16)];
+    }
+
+    @SuppressWarnings({
+            "squid:AssignmentInSubExpressionCheck"
+    })
+    private byte[] ensureCapacity(final int minCapacity) {
+        final byte[] old = this.buf;
+        if (minCapacity <= old.length) {
+            return old;
+        }
+        return this.buf = Arrays.copyOf(old, Math.max(minCapacity, old.length + (old.length >> 1)));
+    }
+
+    @Override
+    public void write(final int b) {
+        final int index = this.count;
+        ensureCapacity(index + 1)[index] = (byte) b;
+        this.count = index + 1;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+        final int index = this.count;
+        System.arraycopy(bytes, offset, ensureCapacity(index + length), index, length);
+        this.count = index + length;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Get written bytes, the buffer itself is returned without copying if it's full.
+     *
+     * @return bytes
+     */
+    public byte[] toByteArray() {
+        final byte[] bytes = this.buf;
+        return this.count == bytes.length ? bytes : Arrays.copyOf(bytes, this.count);
+    }
+}
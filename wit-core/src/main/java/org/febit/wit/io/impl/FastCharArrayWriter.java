@@ -0,0 +1,72 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Unsynchronized {@link java.io.CharArrayWriter}, for one-shot outputs with a presized buffer.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class FastCharArrayWriter extends Writer {
+
+    private char[] buf;
+    private int count;
+
+    public FastCharArrayWriter(int size) {
+        this.buf = new char[Math.max(size, 16)];
+    }
+
+    @SuppressWarnings({
+            "squid:AssignmentInSubExpressionCheck"
+    })
+    private char[] ensureCapacity(final int minCapacity) {
+        final char[] old = this.buf;
+        if (minCapacity <= old.length) {
+            return old;
+        }
+        return this.buf = Arrays.copyOf(old, Math.max(minCapacity, old.length + (old.length >> 1)));
+    }
+
+    @Override
+    public void write(final int c) {
+        final int index = this.count;
+        ensureCapacity(index + 1)[index] = (char) c;
+        this.count = index + 1;
+    }
+
+    @Override
+    public void write(final char[] chars, final int offset, final int length) {
+        final int index = this.count;
+        System.arraycopy(chars, offset, ensureCapacity(index + length), index, length);
+        this.count = index + length;
+    }
+
+    @Override
+    public void write(final String string, final int offset, final int length) {
+        final int index = this.count;
+        string.getChars(offset, offset + length, ensureCapacity(index + length), index);
+        this.count = index + length;
+    }
+
+    @Override
+    public void flush() {
+        // no-op
+    }
+
+    @Override
+    public void close() {
+        // no-op
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.buf, 0, this.count);
+    }
+}
@@ -1,12 +1,15 @@
 // Copyright (c) 2013-present, febit.org. All Rights Reserved.
 package org.febit.wit.io.impl;
 
+import lombok.val;
 import org.febit.wit.Engine;
 import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.io.Buffers;
 import org.febit.wit.io.Out;
 import org.febit.wit.io.charset.CoderFactory;
 import org.febit.wit.io.charset.Encoder;
 import org.febit.wit.util.InternedEncoding;
+import org.febit.wit.util.NumberFormatUtil;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -19,6 +22,8 @@ public final class OutputStreamOut implements Out {
     private final OutputStream outputStream;
     private final InternedEncoding encoding;
     private final Encoder encoder;
+    private char[] numberChars;
+    private byte[] numberBytes;
 
     private OutputStreamOut(OutputStream outputStream, InternedEncoding encoding, Encoder encoder) {
         this.outputStream = outputStream;
@@ -30,6 +35,14 @@ public final class OutputStreamOut implements Out {
         this(outputStream, encoding, coderFactory.newEncoder(encoding));
     }
 
+    /**
+     * @since 2.8.0
+     */
+    public OutputStreamOut(OutputStream outputStream, InternedEncoding encoding, CoderFactory coderFactory,
+                           Buffers buffers) {
+        this(outputStream, encoding, coderFactory.newEncoder(encoding, buffers));
+    }
+
     public OutputStreamOut(OutputStream outputStream, OutputStreamOut out) {
         this(outputStream, out.encoding, out.encoder);
     }
@@ -42,6 +55,13 @@ public final class OutputStreamOut implements Out {
         this(outputStream, encoding != null ? encoding : engine.getEncoding(), engine.getCoderFactory());
     }
 
+    /**
+     * @since 2.8.0
+     */
+    public OutputStreamOut(OutputStream outputStream, InternedEncoding encoding, Engine engine, Buffers buffers) {
+        this(outputStream, encoding != null ? encoding : engine.getEncoding(), engine.getCoderFactory(), buffers);
+    }
+
     @Override
     public void write(final byte[] bytes, final int offset, final int length) {
         try {
@@ -92,6 +112,56 @@ public final class OutputStreamOut implements Out {
         }
     }
 
+    @Override
+    public void writeLong(final long value) {
+        if (this.encoding == InternedEncoding.UTF_8) {
+            val bytes = numberBytes();
+            write(bytes, 0, NumberFormatUtil.format(value, bytes, 0));
+            return;
+        }
+        val chars = numberChars();
+        write(chars, 0, NumberFormatUtil.format(value, chars, 0));
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        final int end;
+        if (this.encoding == InternedEncoding.UTF_8) {
+            val bytes = numberBytes();
+            end = NumberFormatUtil.format(value, bytes, 0);
+            if (end >= 0) {
+                write(bytes, 0, end);
+                return;
+            }
+        } else {
+            val chars = numberChars();
+            end = NumberFormatUtil.format(value, chars, 0);
+            if (end >= 0) {
+                write(chars, 0, end);
+                return;
+            }
+        }
+        write(Double.toString(value));
+    }
+
+    private char[] numberChars() {
+        char[] chars = this.numberChars;
+        if (chars == null) {
+            chars = new char[NumberFormatUtil.MAX_LENGTH];
+            this.numberChars = chars;
+        }
+        return chars;
+    }
+
+    private byte[] numberBytes() {
+        byte[] bytes = this.numberBytes;
+        if (bytes == null) {
+            bytes = new byte[NumberFormatUtil.MAX_LENGTH];
+            this.numberBytes = bytes;
+        }
+        return bytes;
+    }
+
     @Override
     public InternedEncoding getEncoding() {
         return this.encoding;
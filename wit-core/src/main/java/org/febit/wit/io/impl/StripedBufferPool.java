@@ -0,0 +1,161 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.Init;
+import org.febit.wit.io.BufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded and lock-free buffer pool, arrays are pooled in size classes of power of two.
+ * <p>
+ * Each size class is striped by threads, to reduce contentions, other stripes are searched if the own one is empty
+ * or full. Arrays are not bound to threads, so works well with short-lived threads, such as virtual threads.
+ * Arrays larger than {@code maxSize} are not pooled.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class StripedBufferPool implements BufferPool {
+
+    // settings
+    protected int minSize = 1 << 8;
+    protected int maxSize = 1 << 16;
+    protected int stripes = Runtime.getRuntime().availableProcessors();
+    protected int slotsPerStripe = 4;
+
+    protected SizeClasses<char[]> charClasses;
+    protected SizeClasses<byte[]> byteClasses;
+    protected SizeClasses<ByteBuffer> directClasses;
+
+    public StripedBufferPool() {
+        init();
+    }
+
+    @Init
+    public void init() {
+        // round up to power of two
+        final int min = Integer.highestOneBit(Math.max(minSize, 16) - 1) << 1;
+        final int max = Math.max(min, Integer.highestOneBit(maxSize - 1) << 1);
+        final int stripeCount = Integer.highestOneBit((Math.max(stripes, 1) - 1) | 1) << 1;
+        final int slots = Math.max(slotsPerStripe, 1);
+        this.charClasses = new SizeClasses<>(min, max, stripeCount, slots, char[]::new);
+        this.byteClasses = new SizeClasses<>(min, max, stripeCount, slots, byte[]::new);
+        this.directClasses = new SizeClasses<>(min, max, stripeCount, slots, ByteBuffer::allocateDirect);
+    }
+
+    @Override
+    public char[] getChars(final int minLength) {
+        return charClasses.get(minLength);
+    }
+
+    @Override
+    public byte[] getBytes(final int minLength) {
+        return byteClasses.get(minLength);
+    }
+
+    @Override
+    public void release(final char[] chars) {
+        if (chars != null) {
+            charClasses.release(chars, chars.length);
+        }
+    }
+
+    @Override
+    public void release(final byte[] bytes) {
+        if (bytes != null) {
+            byteClasses.release(bytes, bytes.length);
+        }
+    }
+
+    @Override
+    public ByteBuffer getDirectBuffer(final int minCapacity) {
+        final ByteBuffer buffer = directClasses.get(minCapacity);
+        buffer.clear();
+        return buffer;
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect()) {
+            directClasses.release(buffer, buffer.capacity());
+        }
+    }
+
+    protected static final class SizeClasses<T> {
+
+        private final int minShift;
+        private final int maxSize;
+        private final int stripeMask;
+        private final int slotsPerStripe;
+        private final IntFunction<T> factory;
+        private final AtomicReferenceArray<T>[] classes;
+
+        @SuppressWarnings("unchecked")
+        SizeClasses(int minSize, int maxSize, int stripes, int slotsPerStripe, IntFunction<T> factory) {
+            this.minShift = Integer.numberOfTrailingZeros(minSize);
+            this.maxSize = maxSize;
+            this.stripeMask = stripes - 1;
+            this.slotsPerStripe = slotsPerStripe;
+            this.factory = factory;
+            final int count = Integer.numberOfTrailingZeros(maxSize) - minShift + 1;
+            this.classes = new AtomicReferenceArray[count];
+            for (int i = 0; i < count; i++) {
+                this.classes[i] = new AtomicReferenceArray<>(stripes * slotsPerStripe);
+            }
+        }
+
+        private int classIndex(final int length) {
+            if (length <= (1 << minShift)) {
+                return 0;
+            }
+            return 32 - Integer.numberOfLeadingZeros(length - 1) - minShift;
+        }
+
+        private int stripeStart() {
+            final long id = Thread.currentThread().getId();
+            final int hash = (int) (id ^ (id >>> 16)) * 0x9E3779B9;
+            return ((hash >>> 16) & stripeMask) * slotsPerStripe;
+        }
+
+        private static int next(final int i, final int total) {
+            return i + 1 < total ? i + 1 : 0;
+        }
+
+        T get(final int minLength) {
+            if (minLength > maxSize) {
+                return factory.apply(minLength);
+            }
+            final int index = classIndex(minLength);
+            final AtomicReferenceArray<T> slots = classes[index];
+            // own stripe first, then steal from others, since threads may be short-lived
+            final int total = slots.length();
+            final int start = stripeStart();
+            for (int n = 0, i = start; n < total; n++, i = next(i, total)) {
+                final T array = slots.get(i);
+                if (array != null && slots.compareAndSet(i, array, null)) {
+                    return array;
+                }
+            }
+            return factory.apply(1 << (index + minShift));
+        }
+
+        void release(final T array, final int length) {
+            if (length > maxSize || Integer.bitCount(length) != 1 || length < (1 << minShift)) {
+                // not created by this pool
+                return;
+            }
+            final AtomicReferenceArray<T> slots = classes[classIndex(length)];
+            final int total = slots.length();
+            final int start = stripeStart();
+            for (int n = 0, i = start; n < total; n++, i = next(i, total)) {
+                if (slots.get(i) == null && slots.compareAndSet(i, null, array)) {
+                    return;
+                }
+            }
+            // full, dropped
+        }
+    }
+}
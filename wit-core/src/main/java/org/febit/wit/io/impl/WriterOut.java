@@ -9,6 +9,7 @@ import org.febit.wit.io.Out;
 import org.febit.wit.io.charset.CoderFactory;
 import org.febit.wit.io.charset.Decoder;
 import org.febit.wit.util.InternedEncoding;
+import org.febit.wit.util.NumberFormatUtil;
 
 import java.io.IOException;
 import java.io.Writer;
@@ -22,6 +23,7 @@ public final class WriterOut implements Out {
     private final InternedEncoding encoding;
     private final Decoder decoder;
     private final Buffers buffers;
+    private char[] numberChars;
 
     public WriterOut(Writer writer, InternedEncoding encoding, Engine engine) {
         this(writer, encoding != null ? encoding : engine.getEncoding(), engine.getCoderFactory());
@@ -32,10 +34,24 @@ public final class WriterOut implements Out {
     }
 
     public WriterOut(Writer writer, InternedEncoding encoding, CoderFactory coderFactory) {
+        this(writer, encoding, coderFactory, Buffers.getMiniPeers());
+    }
+
+    /**
+     * @since 2.8.0
+     */
+    public WriterOut(Writer writer, InternedEncoding encoding, Engine engine, Buffers buffers) {
+        this(writer, encoding != null ? encoding : engine.getEncoding(), engine.getCoderFactory(), buffers);
+    }
+
+    /**
+     * @since 2.8.0
+     */
+    public WriterOut(Writer writer, InternedEncoding encoding, CoderFactory coderFactory, Buffers buffers) {
         this.writer = writer;
         this.encoding = encoding;
-        this.buffers = Buffers.getMiniPeers();
-        this.decoder = coderFactory.newDecoder(encoding, this.buffers);
+        this.buffers = buffers;
+        this.decoder = coderFactory.newDecoder(encoding, buffers);
     }
 
     @Override
@@ -90,6 +106,32 @@ public final class WriterOut implements Out {
         write(string, 0, string.length());
     }
 
+    @Override
+    public void writeLong(final long value) {
+        val chars = numberChars();
+        write(chars, 0, NumberFormatUtil.format(value, chars, 0));
+    }
+
+    @Override
+    public void writeDouble(final double value) {
+        val chars = numberChars();
+        final int end = NumberFormatUtil.format(value, chars, 0);
+        if (end >= 0) {
+            write(chars, 0, end);
+            return;
+        }
+        write(Double.toString(value));
+    }
+
+    private char[] numberChars() {
+        char[] chars = this.numberChars;
+        if (chars == null) {
+            chars = new char[NumberFormatUtil.MAX_LENGTH];
+            this.numberChars = chars;
+        }
+        return chars;
+    }
+
     @Override
     public InternedEncoding getEncoding() {
         return this.encoding;
@@ -9,15 +9,24 @@ import org.febit.wit.lang.MethodDeclare;
 import org.febit.wit.lang.UnConstableMethodDeclare;
 import org.febit.wit.util.ExceptionUtil;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * @author zqq90
  */
 public final class FunctionMethodDeclare implements MethodDeclare, UnConstableMethodDeclare {
 
+    private static final AtomicReferenceFieldUpdater<FunctionMethodDeclare, InternalContext> FRAME
+            = AtomicReferenceFieldUpdater.newUpdater(FunctionMethodDeclare.class, InternalContext.class, "frame");
+
     private final FunctionDeclare function;
     private final InternalContext scopeContext;
     private final VariantIndexer[] indexers;
     private final int varSize;
+    /**
+     * Sub-context released by the latest call, taken by the next call, null if taken.
+     */
+    private volatile InternalContext frame;
 
     public FunctionMethodDeclare(FunctionDeclare function, InternalContext scopeContext,
                                  VariantIndexer[] indexers, int varSize) {
@@ -30,7 +39,21 @@ public final class FunctionMethodDeclare implements MethodDeclare, UnConstableMe
     @Override
     public Object invoke(final InternalContext context, final Object[] args) {
         try {
-            return function.invoke(this.scopeContext.createSubContext(this.indexers, context, this.varSize), args);
+            InternalContext subContext = FRAME.getAndSet(this, null);
+            if (subContext == null) {
+                subContext = this.scopeContext.createSubContext(this.indexers, context, this.varSize);
+            } else {
+                subContext.reuseSubContext(context);
+            }
+            final int captures = subContext.getCaptureCount();
+            final Object result = function.invoke(subContext, args);
+            // reuse only if no closures created, which may hold the sub-context,
+            // counts may be changed by other threads if the scope is shared, then just not reused
+            if (subContext.getCaptureCount() == captures) {
+                subContext.clear();
+                FRAME.lazySet(this, subContext);
+            }
+            return result;
         } catch (Exception e) {
             val runtimeException = ExceptionUtil.toScriptRuntimeException(e, function);
             if (context != this.scopeContext) {
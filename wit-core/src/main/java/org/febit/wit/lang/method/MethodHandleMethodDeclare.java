@@ -0,0 +1,62 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.lang.method;
+
+import org.febit.wit.InternalContext;
+import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.lang.MethodDeclare;
+import org.febit.wit.util.JavaNativeUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method declare backed by a {@link MethodHandle}.
+ * <p>
+ * The handle is adapted to {@code (Object[])Object}, or {@code (Object[])void} for void methods, arguments are
+ * cast and unboxed by the handle itself. Runtime exceptions are thrown as is, like the accessors of
+ * {@link org.febit.wit.asm.AsmNativeFactory}.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class MethodHandleMethodDeclare implements MethodDeclare {
+
+    private final MethodHandle handle;
+    private final int argsCount;
+    private final boolean needReceiver;
+    private final boolean isVoid;
+
+    /**
+     * @param handle       direct handle, receiver is the first parameter of non-static methods
+     * @param needReceiver if the first argument is the receiver, which can't be null
+     */
+    public MethodHandleMethodDeclare(MethodHandle handle, boolean needReceiver) {
+        final MethodType type = handle.type();
+        this.argsCount = type.parameterCount();
+        this.needReceiver = needReceiver;
+        this.isVoid = type.returnType() == void.class;
+        this.handle = handle.asFixedArity()
+                .asType(type.generic().changeReturnType(isVoid ? void.class : Object.class))
+                .asSpreader(Object[].class, argsCount);
+    }
+
+    @Override
+    public Object invoke(final InternalContext context, final Object[] args) {
+        if (needReceiver && (args == null || args.length == 0 || args[0] == null)) {
+            throw new ScriptRuntimeException("this method need one argument at least");
+        }
+        final Object[] methodArgs = JavaNativeUtil.prepareArgs(argsCount, args, 0);
+        try {
+            if (isVoid) {
+                handle.invokeExact(methodArgs);
+                return InternalContext.VOID;
+            }
+            return (Object) handle.invokeExact(methodArgs);
+        } catch (RuntimeException | Error ex) {
+            // same as generated accessors
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ScriptRuntimeException("this method throws an exception", ex);
+        }
+    }
+}
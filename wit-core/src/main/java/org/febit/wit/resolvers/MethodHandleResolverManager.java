@@ -0,0 +1,60 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.resolvers;
+
+import org.febit.wit.resolvers.impl.MethodHandleBeanResolver;
+import org.febit.wit.util.ClassMap;
+
+/**
+ * Resolver manager backed by method handles, beans of non-public classes are resolved without reflection.
+ * <p>
+ * Falls back to the common resolver if failed to create handles.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class MethodHandleResolverManager extends ResolverManager {
+
+    private static final ClassMap<MethodHandleBeanResolver> CACHE = new ClassMap<>();
+
+    @Override
+    protected SetResolver resolveSetResolver(Class<?> type) {
+        SetResolver resolver = getMethodHandleResolver(type);
+        if (resolver != null) {
+            return resolver;
+        }
+        return super.resolveSetResolver(type);
+    }
+
+    @Override
+    protected GetResolver resolveGetResolver(Class<?> type) {
+        GetResolver resolver = getMethodHandleResolver(type);
+        if (resolver != null) {
+            return resolver;
+        }
+        return super.resolveGetResolver(type);
+    }
+
+    @Override
+    protected PropertyGetter createPropertyGetter(Class<?> type, GetResolver resolver, String property) {
+        // only for created resolvers, others may be overridden by user
+        if (resolver instanceof MethodHandleBeanResolver && resolver == CACHE.get(type)) {
+            PropertyGetter getter = ((MethodHandleBeanResolver) resolver).getPropertyGetter(property);
+            if (getter != null) {
+                return getter;
+            }
+        }
+        return super.createPropertyGetter(type, resolver, property);
+    }
+
+    protected MethodHandleBeanResolver getMethodHandleResolver(Class<?> type) {
+        MethodHandleBeanResolver resolver = CACHE.get(type);
+        if (resolver == null) {
+            try {
+                resolver = CACHE.putIfAbsent(type, MethodHandleBeanResolver.create(type));
+            } catch (Exception e) {
+                logger.warn("Failed to create method handle resolver for: ".concat(type.getName()), e);
+            }
+        }
+        return resolver;
+    }
+}
@@ -0,0 +1,14 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.resolvers;
+
+/**
+ * Getter of a property, bound to a bean type.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+@FunctionalInterface
+public interface PropertyGetter {
+
+    Object get(Object bean);
+}
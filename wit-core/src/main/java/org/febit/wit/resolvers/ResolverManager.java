@@ -5,6 +5,7 @@ import org.febit.wit.Init;
 import org.febit.wit.exceptions.ScriptRuntimeException;
 import org.febit.wit.loggers.Logger;
 import org.febit.wit.resolvers.impl.CommonResolver;
+import org.febit.wit.resolvers.impl.NumberOutResolver;
 import org.febit.wit.util.ClassMap;
 
 import java.lang.reflect.Modifier;
@@ -31,6 +32,7 @@ public class ResolverManager {
     protected final ArrayList<Class> setResolverTypes;
     protected final ArrayList<Class> outResolverTypes;
     protected final CommonResolver commonResolver;
+    protected final NumberOutResolver numberOutResolver;
 
     public ResolverManager() {
 
@@ -46,6 +48,7 @@ public class ResolverManager {
         outResolverTypes = new ArrayList<>();
 
         commonResolver = new CommonResolver();
+        numberOutResolver = new NumberOutResolver();
     }
 
     @SuppressWarnings("unchecked")
@@ -76,6 +79,24 @@ public class ResolverManager {
         return commonResolver;
     }
 
+    /**
+     * Resolve a getter of the given property, for beans exactly of the given type.
+     *
+     * @param type     bean type
+     * @param property property name
+     * @return getter
+     * @since 2.8.0
+     */
+    public PropertyGetter resolvePropertyGetter(final Class<?> type, final String property) {
+        return createPropertyGetter(type, resolveGetResolverIfAbsent(type), property);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected PropertyGetter createPropertyGetter(final Class<?> type, final GetResolver resolver,
+                                                  final String property) {
+        return bean -> resolver.get(bean, property);
+    }
+
     protected SetResolver resolveSetResolverIfAbsent(final Class<?> type) {
         SetResolver resolver;
         resolver = setters.get(type);
@@ -102,10 +123,23 @@ public class ResolverManager {
         final int index = lookup(outResolverTypes, type);
         resolver = index >= 0
                 ? outResolvers.get(index)
-                : commonResolver;
+                : resolveDefaultOutResolver(type);
         return outers.putIfAbsent(type, resolver);
     }
 
+    /**
+     * Resolve the out resolver of the type, if no configured resolver matches.
+     *
+     * @param type type
+     * @return out resolver
+     * @since 2.8.0
+     */
+    protected OutResolver resolveDefaultOutResolver(final Class<?> type) {
+        return NumberOutResolver.isSupported(type)
+                ? numberOutResolver
+                : commonResolver;
+    }
+
     @Init
     public void init() {
         if (resolvers != null) {
@@ -0,0 +1,154 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.resolvers.impl;
+
+import lombok.val;
+import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.resolvers.GetResolver;
+import org.febit.wit.resolvers.PropertyGetter;
+import org.febit.wit.resolvers.SetResolver;
+import org.febit.wit.util.MethodHandleUtil;
+import org.febit.wit.util.StringUtil;
+import org.febit.wit.util.bean.FieldInfo;
+import org.febit.wit.util.bean.FieldInfoResolver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bean resolver backed by method handles, works for non-public classes as well.
+ * <p>
+ * Properties are same as {@link CommonResolver}, resolved by {@link FieldInfoResolver}.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class MethodHandleBeanResolver implements GetResolver<Object>, SetResolver<Object> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> beanType;
+    private final Map<String, Getter> getters;
+    private final Map<String, MethodHandle> setters;
+
+    private MethodHandleBeanResolver(Class<?> beanType, Map<String, Getter> getters,
+                                     Map<String, MethodHandle> setters) {
+        this.beanType = beanType;
+        this.getters = getters;
+        this.setters = setters;
+    }
+
+    /**
+     * Create resolver for the given bean type.
+     *
+     * @param beanType bean type
+     * @return resolver
+     * @throws IllegalAccessException if any accessor is not accessible
+     */
+    public static MethodHandleBeanResolver create(Class<?> beanType) throws IllegalAccessException {
+        final Map<String, Getter> getters = new HashMap<>();
+        final Map<String, MethodHandle> setters = new HashMap<>();
+        for (val info : FieldInfoResolver.resolve(beanType).toArray(FieldInfo[]::new)) {
+            getters.put(info.name, new Getter(info, createGetterHandle(info)));
+            setters.put(info.name, createSetterHandle(info));
+        }
+        return new MethodHandleBeanResolver(beanType, getters, setters);
+    }
+
+    private static MethodHandle createGetterHandle(FieldInfo info) throws IllegalAccessException {
+        final MethodHandle handle;
+        if (info.getGetterMethod() != null) {
+            handle = MethodHandleUtil.unreflect(info.getGetterMethod());
+        } else if (info.getField() != null) {
+            handle = MethodHandleUtil.unreflectGetter(info.getField());
+        } else {
+            return null;
+        }
+        return handle.asType(GETTER_TYPE);
+    }
+
+    private static MethodHandle createSetterHandle(FieldInfo info) throws IllegalAccessException {
+        final MethodHandle handle;
+        if (info.getSetterMethod() != null) {
+            handle = MethodHandleUtil.unreflect(info.getSetterMethod());
+        } else if (info.isFieldSettable()) {
+            handle = MethodHandleUtil.unreflectSetter(info.getField());
+        } else {
+            return null;
+        }
+        // result of fluent setters is dropped
+        return handle.asType(SETTER_TYPE);
+    }
+
+    /**
+     * Get the getter of given property.
+     *
+     * @param property property name
+     * @return getter, null if not found
+     */
+    public PropertyGetter getPropertyGetter(String property) {
+        return getters.get(property);
+    }
+
+    @Override
+    public Object get(Object bean, Object property) {
+        final Getter getter = getters.get(String.valueOf(property));
+        if (getter == null) {
+            throw new ScriptRuntimeException("Invalid property " + beanType.getName() + '#' + property);
+        }
+        return getter.get(bean);
+    }
+
+    @Override
+    public void set(Object bean, Object property, Object value) {
+        final String name = String.valueOf(property);
+        if (!setters.containsKey(name)) {
+            throw new ScriptRuntimeException("Invalid property " + beanType.getName() + '#' + property);
+        }
+        final MethodHandle handle = setters.get(name);
+        if (handle == null) {
+            throw new ScriptRuntimeException(StringUtil.format("Unwriteable property {}#{}",
+                    beanType.getName(), name));
+        }
+        try {
+            handle.invokeExact(bean, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ScriptRuntimeException(e.toString(), e);
+        }
+    }
+
+    @Override
+    public Class<Object> getMatchClass() {
+        return null;
+    }
+
+    private static final class Getter implements PropertyGetter {
+
+        private final FieldInfo info;
+        private final MethodHandle handle;
+
+        Getter(FieldInfo info, MethodHandle handle) {
+            this.info = info;
+            this.handle = handle;
+        }
+
+        @Override
+        public Object get(Object bean) {
+            if (handle == null) {
+                throw new ScriptRuntimeException(StringUtil.format("Unreadable property {}#{}",
+                        info.owner.getName(), info.name));
+            }
+            try {
+                return (Object) handle.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ScriptRuntimeException(e.toString(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.resolvers.impl;
+
+import org.febit.wit.io.Out;
+import org.febit.wit.resolvers.OutResolver;
+import org.febit.wit.resolvers.ResolverManager;
+
+/**
+ * Out resolver of numbers, formatted by {@link Out#writeInt(int)} etc. without creating strings.
+ * <p>
+ * It's the default out resolver of supported types, only used if no configured resolver matches, see
+ * {@link ResolverManager#resolveOutResolver(Class)}.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class NumberOutResolver implements OutResolver<Number> {
+
+    /**
+     * If the type is formatted without creating strings.
+     *
+     * @param type type
+     * @return true if Integer, Long, Short, Byte or Double
+     */
+    public static boolean isSupported(final Class<?> type) {
+        return type == Integer.class
+                || type == Long.class
+                || type == Double.class
+                || type == Short.class
+                || type == Byte.class;
+    }
+
+    @Override
+    public void render(final Out out, final Number number) {
+        final Class<?> type = number.getClass();
+        if (type == Integer.class || type == Short.class || type == Byte.class) {
+            out.writeInt(number.intValue());
+        } else if (type == Long.class) {
+            out.writeLong(number.longValue());
+        } else if (type == Double.class) {
+            out.writeDouble(number.doubleValue());
+        } else {
+            out.write(number.toString());
+        }
+    }
+
+    @Override
+    public Class<Number> getMatchClass() {
+        return Number.class;
+    }
+}
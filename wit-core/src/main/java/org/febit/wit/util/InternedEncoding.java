@@ -1,6 +1,7 @@
 // Copyright (c) 2013-present, febit.org. All Rights Reserved.
 package org.febit.wit.util;
 
+import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,7 +9,9 @@ import java.util.Map;
 /**
  * @author zqq
  */
-public class InternedEncoding {
+public class InternedEncoding implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final InternedEncoding UTF_8;
     private static final Map<String, InternedEncoding> INTERNED;
@@ -36,6 +39,10 @@ public class InternedEncoding {
         return doIntern(encoding);
     }
 
+    private Object readResolve() {
+        return intern(value);
+    }
+
     private static synchronized InternedEncoding doIntern(String encoding) {
         InternedEncoding interned = INTERNED.get(encoding);
         if (interned != null) {
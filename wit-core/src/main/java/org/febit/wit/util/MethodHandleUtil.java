@@ -0,0 +1,47 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Creates direct method handles of members, non-public members and members of non-public classes are supported
+ * if they are accessible by reflection.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+@SuppressWarnings({
+        "WeakerAccess"
+})
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MethodHandleUtil {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    public static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        ClassUtil.setAccessible(method);
+        return LOOKUP.unreflect(method);
+    }
+
+    public static MethodHandle unreflectConstructor(Constructor<?> constructor) throws IllegalAccessException {
+        ClassUtil.setAccessible(constructor);
+        return LOOKUP.unreflectConstructor(constructor);
+    }
+
+    public static MethodHandle unreflectGetter(Field field) throws IllegalAccessException {
+        ClassUtil.setAccessible(field);
+        return LOOKUP.unreflectGetter(field);
+    }
+
+    public static MethodHandle unreflectSetter(Field field) throws IllegalAccessException {
+        ClassUtil.setAccessible(field);
+        return LOOKUP.unreflectSetter(field);
+    }
+}
@@ -0,0 +1,127 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Format numbers to chars or ASCII bytes without allocations, same as {@link String#valueOf(long)} and
+ * {@link String#valueOf(double)}.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class NumberFormatUtil {
+
+    /**
+     * Max length of formatted numbers, the length of {@link Long#MIN_VALUE}.
+     */
+    public static final int MAX_LENGTH = 20;
+
+    /**
+     * Integral doubles in this range are formatted as plain "123.0".
+     */
+    private static final double PLAIN_DOUBLE_LIMIT = 1e7;
+
+    private static int stringSize(final long value) {
+        // count in negative, for Long.MIN_VALUE
+        long neg = value < 0 ? value : -value;
+        int size = value < 0 ? 2 : 1;
+        while (neg <= -10) {
+            neg /= 10;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Format the long value.
+     *
+     * @param value value
+     * @param buf   buffer, at least {@link #MAX_LENGTH} chars from {@code from}
+     * @param from  start index
+     * @return end index
+     */
+    public static int format(final long value, final char[] buf, final int from) {
+        final int end = from + stringSize(value);
+        long neg = value < 0 ? value : -value;
+        int pos = end;
+        do {
+            buf[--pos] = (char) ('0' - (int) (neg % 10));
+            neg /= 10;
+        } while (neg != 0);
+        if (value < 0) {
+            buf[--pos] = '-';
+        }
+        return end;
+    }
+
+    /**
+     * Format the long value to ASCII bytes.
+     *
+     * @param value value
+     * @param buf   buffer, at least {@link #MAX_LENGTH} bytes from {@code from}
+     * @param from  start index
+     * @return end index
+     */
+    public static int format(final long value, final byte[] buf, final int from) {
+        final int end = from + stringSize(value);
+        long neg = value < 0 ? value : -value;
+        int pos = end;
+        do {
+            buf[--pos] = (byte) ('0' - (int) (neg % 10));
+            neg /= 10;
+        } while (neg != 0);
+        if (value < 0) {
+            buf[--pos] = '-';
+        }
+        return end;
+    }
+
+    /**
+     * Format the double value if it's integral and in the plain range, such as "123.0".
+     *
+     * @param value value
+     * @param buf   buffer, at least {@link #MAX_LENGTH} chars from {@code from}
+     * @param from  start index
+     * @return end index, or -1 if not supported, should use {@link Double#toString(double)} instead
+     */
+    public static int format(final double value, final char[] buf, final int from) {
+        if (!isPlainIntegral(value)) {
+            return -1;
+        }
+        final int end = format((long) value, buf, from);
+        buf[end] = '.';
+        buf[end + 1] = '0';
+        return end + 2;
+    }
+
+    /**
+     * Format the double value to ASCII bytes if it's integral and in the plain range, such as "123.0".
+     *
+     * @param value value
+     * @param buf   buffer, at least {@link #MAX_LENGTH} bytes from {@code from}
+     * @param from  start index
+     * @return end index, or -1 if not supported, should use {@link Double#toString(double)} instead
+     */
+    public static int format(final double value, final byte[] buf, final int from) {
+        if (!isPlainIntegral(value)) {
+            return -1;
+        }
+        final int end = format((long) value, buf, from);
+        buf[end] = '.';
+        buf[end + 1] = '0';
+        return end + 2;
+    }
+
+    private static boolean isPlainIntegral(final double value) {
+        if (value == 0) {
+            // -0.0 is not
+            return Double.doubleToRawLongBits(value) == 0L;
+        }
+        return value > -PLAIN_DOUBLE_LIMIT
+                && value < PLAIN_DOUBLE_LIMIT
+                && value == (long) value;
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded and lock-free object pool.
+ * <p>
+ * Each thread starts searching from its own slot, to reduce contentions, other slots are searched if empty or full.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public final class StripedObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    /**
+     * @param size max count of pooled objects, rounded up to power of two
+     */
+    public StripedObjectPool(int size) {
+        final int count = Integer.highestOneBit((Math.max(size, 1) - 1) | 1) << 1;
+        this.slots = new AtomicReferenceArray<>(count);
+        this.mask = count - 1;
+    }
+
+    private int start() {
+        final long id = Thread.currentThread().getId();
+        final int hash = (int) (id ^ (id >>> 16)) * 0x9E3779B9;
+        return (hash >>> 16) & mask;
+    }
+
+    /**
+     * Take an object from this pool.
+     *
+     * @return pooled object, null if empty
+     */
+    public T poll() {
+        final AtomicReferenceArray<T> mySlots = this.slots;
+        final int myMask = this.mask;
+        for (int n = 0, i = start(); n <= myMask; n++, i = (i + 1) & myMask) {
+            final T item = mySlots.get(i);
+            if (item != null && mySlots.compareAndSet(i, item, null)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put the object to this pool.
+     *
+     * @param item object
+     * @return false if full, the object is dropped
+     */
+    public boolean offer(final T item) {
+        final AtomicReferenceArray<T> mySlots = this.slots;
+        final int myMask = this.mask;
+        for (int n = 0, i = start(); n <= myMask; n++, i = (i + 1) & myMask) {
+            if (mySlots.get(i) == null && mySlots.compareAndSet(i, null, item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
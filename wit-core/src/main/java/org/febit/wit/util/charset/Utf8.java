@@ -75,6 +75,22 @@ public class Utf8 {
         char d;
         int uc;
         int pos = from;
+        // ASCII fast path, 8 chars per round
+        final int wideTo = to - 7;
+        while (pos < wideTo
+                && (sa[pos] | sa[pos + 1] | sa[pos + 2] | sa[pos + 3]
+                | sa[pos + 4] | sa[pos + 5] | sa[pos + 6] | sa[pos + 7]) < 0x80) {
+            da[dp] = (byte) sa[pos];
+            da[dp + 1] = (byte) sa[pos + 1];
+            da[dp + 2] = (byte) sa[pos + 2];
+            da[dp + 3] = (byte) sa[pos + 3];
+            da[dp + 4] = (byte) sa[pos + 4];
+            da[dp + 5] = (byte) sa[pos + 5];
+            da[dp + 6] = (byte) sa[pos + 6];
+            da[dp + 7] = (byte) sa[pos + 7];
+            dp += 8;
+            pos += 8;
+        }
         while (pos < to) {
             c = sa[pos++];
             if (c < 0x80) {
@@ -115,4 +131,75 @@ public class Utf8 {
         }
         return dp;
     }
+
+    /**
+     * Encode chars of the string directly, same as {@link #encode(byte[], char[], int, int)}.
+     *
+     * @since 2.8.0
+     */
+    @SuppressWarnings({
+            "squid:S135" // Loops should not contain more than a single "break" or "continue" statement
+    })
+    public static int encode(final byte[] da, final String sa, final int from, final int to) {
+        int dp = 0;
+        char c;
+        char d;
+        int uc;
+        int pos = from;
+        // ASCII fast path, 8 chars per round
+        final int wideTo = to - 7;
+        while (pos < wideTo
+                && (sa.charAt(pos) | sa.charAt(pos + 1) | sa.charAt(pos + 2) | sa.charAt(pos + 3)
+                | sa.charAt(pos + 4) | sa.charAt(pos + 5) | sa.charAt(pos + 6) | sa.charAt(pos + 7)) < 0x80) {
+            da[dp] = (byte) sa.charAt(pos);
+            da[dp + 1] = (byte) sa.charAt(pos + 1);
+            da[dp + 2] = (byte) sa.charAt(pos + 2);
+            da[dp + 3] = (byte) sa.charAt(pos + 3);
+            da[dp + 4] = (byte) sa.charAt(pos + 4);
+            da[dp + 5] = (byte) sa.charAt(pos + 5);
+            da[dp + 6] = (byte) sa.charAt(pos + 6);
+            da[dp + 7] = (byte) sa.charAt(pos + 7);
+            dp += 8;
+            pos += 8;
+        }
+        while (pos < to) {
+            c = sa.charAt(pos++);
+            if (c < 0x80) {
+                // Have at most seven bits
+                da[dp++] = (byte) c;
+                continue;
+            }
+            if (c < 0x800) {
+                // 2 bytes, 11 bits
+                da[dp++] = (byte) (0xc0 | (c >> 6));
+                da[dp++] = (byte) (0x80 | (c & 0x3f));
+                continue;
+            }
+            if (c >>> 11 != 0x1B) {
+                //if not SURROGATE: c < Character.MIN_HIGH_SURROGATE || c > Character.MAX_LOW_SURROGATE
+                // 3 bytes, 16 bits
+                da[dp++] = (byte) (0xe0 | (c >> 12));
+                da[dp++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                da[dp++] = (byte) (0x80 | (c & 0x3f));
+                continue;
+            }
+            if (c <= Character.MAX_HIGH_SURROGATE && pos < to) {
+                // if is HIGH_SURROGATE && has next char
+                d = sa.charAt(pos++);
+                if (d >>> 10 == 0x37) {
+                    // if is LOW_SURROGATE: Character.MIN_LOW_SURROGATE <= d <= Character.MAX_LOW_SURROGATE
+                    uc = Character.toCodePoint(c, d);
+                    da[dp++] = (byte) (0xf0 | (uc >> 18));
+                    da[dp++] = (byte) (0x80 | ((uc >> 12) & 0x3f));
+                    da[dp++] = (byte) (0x80 | ((uc >> 6) & 0x3f));
+                    da[dp++] = (byte) (0x80 | (uc & 0x3f));
+                    continue;
+                }
+                --pos; // back the LOW_SURROGATE char
+            }
+            // unsupported char
+            da[dp++] = '?';
+        }
+        return dp;
+    }
 }
@@ -165,7 +165,7 @@ public interface Constants {
 //  int BASTORE = 84;           // -
 //  int CASTORE = 85;           // -
 //  int SASTORE = 86;           // -
-//  int POP = 87;               // -
+    int POP = 87;               // -
 //  int POP2 = 88;              // -
     int DUP = 89;               // -
 //  int DUP_X1 = 90;            // -
@@ -0,0 +1,80 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit;
+
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class ContextReuseTest {
+
+    private static Engine createEngine() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.reuseContext", "true");
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        assertEquals(true, engine.isReuseContext());
+        return engine;
+    }
+
+    @Test
+    void cleared() throws ResourceNotFoundException {
+        Template template = createEngine().getTemplate(
+                "string:<% var a, b; var c; if (b == null) { b = \"unset\"; } %>${a}-${b}-${c}<% c = a; %>");
+        PreparedVars prepared = PreparedVars.of("a", "b");
+
+        assertEquals("1-2-", template.mergeToString(prepared.bind(1, 2)));
+        assertEquals("3-unset-", template.mergeToString(prepared.bind(3, null)));
+        assertEquals("4-unset-", template.mergeToString(Vars.of("a", 4)));
+    }
+
+    @Test
+    void captured() throws ResourceNotFoundException {
+        Template template = createEngine().getTemplate("string:<% var a, holder;"
+                + " if (holder.f == null) { holder.f = function() { return a; }; }"
+                + " var f = holder.f; echo f(); %>");
+
+        Map<String, Object> holder = new HashMap<>();
+        PreparedVars prepared = PreparedVars.of("a", "holder");
+        assertEquals("first", template.mergeToString(prepared.bind("first", holder)));
+        // the context captured by the function is not reused
+        assertEquals("first", template.mergeToString(prepared.bind("second", holder)));
+        assertEquals("first", template.mergeToString(prepared.bind("third", holder)));
+    }
+
+    @Test
+    void concurrent() throws ResourceNotFoundException, InterruptedException, ExecutionException {
+        Template template = createEngine().getTemplate(
+                "string:<% var n; for (i : 1..n) { %>${i},<% } %>${n}");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int n = i % 20 + 1;
+                results.add(executor.submit(() -> template.mergeToString(Vars.of("n", n))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                final int n = i % 20 + 1;
+                StringBuilder expected = new StringBuilder();
+                for (int j = 1; j <= n; j++) {
+                    expected.append(j).append(',');
+                }
+                expected.append(n);
+                assertEquals(expected.toString(), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
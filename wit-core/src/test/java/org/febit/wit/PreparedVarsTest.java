@@ -0,0 +1,90 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit;
+
+import org.febit.wit.core.VariantIndexer;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author zqq90
+ */
+class PreparedVarsTest {
+
+    private static String merge(Template template, Vars vars) {
+        StringWriter writer = new StringWriter();
+        template.merge(vars, writer);
+        return writer.toString();
+    }
+
+    @Test
+    void bind() throws ResourceNotFoundException {
+        Template template = EngineManager.getTemplate("string:<% var a, b; %>${a}-${b}");
+        Template other = EngineManager.getTemplate("string:<% var x, b, a; %>${a}+${b}+${x}");
+        PreparedVars prepared = PreparedVars.of("a", "b", "unused");
+
+        assertEquals("1-2", merge(template, prepared.bind(1, 2, 3)));
+        assertEquals("3-4", merge(template, prepared.bind(3, 4, null)));
+        assertEquals("1+2+", merge(other, prepared.bind(1, 2, 3)));
+        assertEquals("5-", merge(template, prepared.bind(5, null, null)));
+
+        PreparedVars.Values values = prepared.newValues();
+        values.set("a", "x").set(1, "y");
+        assertEquals("x-y", merge(template, values));
+        values.clear().set("b", "z");
+        assertEquals("-z", merge(template, values));
+
+        // generic path
+        assertEquals("x-z", merge(template, Vars.of(values, Vars.of("a", "x"))));
+
+        assertThrows(IllegalArgumentException.class, () -> prepared.bind(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> values.set("c", 1));
+    }
+
+    private static VariantIndexer rootIndexer(Template template) {
+        return ((InternalContext) template.merge(new StringWriter())).getCurrentIndexer();
+    }
+
+    @Test
+    void sharedByTemplates() throws ResourceNotFoundException {
+        PreparedVars prepared = PreparedVars.of("a", "b");
+        VariantIndexer indexer = rootIndexer(EngineManager.getTemplate("string:<% var a, b; %>"));
+        VariantIndexer other = rootIndexer(EngineManager.getTemplate("string:<% var x, b, a; %>"));
+
+        int[] slots = prepared.resolve(indexer);
+        int[] otherSlots = prepared.resolve(other);
+        assertArrayEquals(new int[]{indexer.getIndex("a"), indexer.getIndex("b")}, slots);
+        assertArrayEquals(new int[]{other.getIndex("a"), other.getIndex("b")}, otherSlots);
+
+        // not resolved again by alternate merges
+        assertSame(slots, prepared.resolve(indexer));
+        assertSame(otherSlots, prepared.resolve(other));
+        assertSame(slots, prepared.resolve(indexer));
+
+        // the eldest is dropped if full
+        for (int i = 0; i < PreparedVars.MAX_CACHED_SLOTS; i++) {
+            prepared.resolve(rootIndexer(EngineManager.getTemplate("string:<% var a" + i + ", a, b; %>")));
+        }
+        assertNotSame(slots, prepared.resolve(indexer));
+    }
+
+    @Test
+    void exportOnce() throws ResourceNotFoundException {
+        Template template = EngineManager.getTemplate("string:<% var a; %>${a}");
+        AtomicInteger count = new AtomicInteger();
+        Vars vars = accepter -> {
+            count.incrementAndGet();
+            accepter.set("a", "A");
+        };
+        assertEquals("A", merge(template, vars));
+        assertEquals(1, count.get());
+    }
+}
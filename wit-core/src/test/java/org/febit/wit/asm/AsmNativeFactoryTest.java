@@ -2,8 +2,11 @@
 package org.febit.wit.asm;
 
 import org.febit.wit.Context;
+import org.febit.wit.EngineManager;
+import org.febit.wit.core.NativeFactory;
 import org.febit.wit.exceptions.ScriptRuntimeException;
 import org.febit.wit.lang.MethodDeclare;
+import org.febit.wit.lang.method.MethodHandleMethodDeclare;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -20,6 +23,68 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
  */
 class AsmNativeFactoryTest {
 
+    @SuppressWarnings({"unused"})
+    private static class Bean {
+
+        private final String name;
+        private int count;
+
+        Bean(String name) {
+            this.name = name;
+        }
+
+        private static String join(String... args) {
+            return String.join(",", args);
+        }
+
+        String hello(String who, int times) {
+            return name + ": hello " + who + " x" + times;
+        }
+
+        void touch() {
+            count++;
+        }
+
+        private void fail() throws Exception {
+            throw new Exception("failed");
+        }
+    }
+
+    @Test
+    void nonPublic() throws Exception {
+        NativeFactory nativeFactory = EngineManager.getEngine().getNativeFactory();
+
+        MethodDeclare newBean = nativeFactory.getNativeConstructorDeclare(
+                Bean.class.getDeclaredConstructor(String.class));
+        MethodDeclare join = nativeFactory.getNativeMethodDeclare(
+                Bean.class.getDeclaredMethod("join", String[].class));
+        MethodDeclare hello = nativeFactory.getNativeMethodDeclare(
+                Bean.class.getDeclaredMethod("hello", String.class, int.class));
+        MethodDeclare fail = nativeFactory.getNativeMethodDeclare(Bean.class.getDeclaredMethod("fail"));
+
+        assertEquals(MethodHandleMethodDeclare.class, newBean.getClass());
+        assertEquals(MethodHandleMethodDeclare.class, join.getClass());
+        assertEquals(MethodHandleMethodDeclare.class, hello.getClass());
+
+        Object bean = newBean.invoke(null, new Object[]{"bean"});
+        assertEquals("bean: hello wit x2", hello.invoke(null, new Object[]{bean, "wit", 2}));
+        assertEquals("a,b", join.invoke(null, new Object[]{new String[]{"a", "b"}}));
+        assertEquals("", join.invoke(null, new Object[]{new String[0], "ignored"}));
+
+        Exception exception = assertThrows(ScriptRuntimeException.class,
+                () -> hello.invoke(null, new Object[0]));
+        assertEquals("this method need one argument at least", exception.getMessage());
+        assertThrows(ClassCastException.class,
+                () -> hello.invoke(null, new Object[]{bean, "wit", "2"}));
+        exception = assertThrows(ScriptRuntimeException.class,
+                () -> fail.invoke(null, new Object[]{bean}));
+        assertEquals("failed", exception.getCause().getMessage());
+
+        MethodDeclare touch = nativeFactory.getNativeMethodDeclare(Bean.class.getDeclaredMethod("touch"));
+        assertEquals(Context.VOID, touch.invoke(null, new Object[]{bean}));
+        assertEquals(1, ((Bean) bean).count);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void test() throws Exception {
@@ -1,12 +1,27 @@
 // Copyright (c) 2013-present, febit.org. All Rights Reserved.
 package org.febit.wit.asm;
 
+import org.febit.wit.EngineManager;
+import org.febit.wit.exceptions.ResourceNotFoundException;
 import org.febit.wit.exceptions.ScriptRuntimeException;
+import org.febit.wit.resolvers.PropertyGetter;
+import org.febit.wit.resolvers.ResolverManager;
+import org.febit.wit.resolvers.impl.MethodHandleBeanResolver;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author zqq90
@@ -53,6 +68,7 @@ class AsmResolverManagerTest {
         public String f1 = "f1";
         private String f2 = "f2";
         public int f4 = 4;
+        public final String f5 = "f5";
 
         public String getF2() {
             return f2;
@@ -71,6 +87,38 @@ class AsmResolverManagerTest {
 
     }
 
+    @Test
+    void methodHandleResolver() throws IllegalAccessException {
+        Book book = new Book();
+        MethodHandleBeanResolver resolver = MethodHandleBeanResolver.create(Book.class);
+
+        assertEquals("f1", resolver.get(book, "f1"));
+        assertEquals("f2", resolver.get(book, "f2"));
+        assertEquals(4, resolver.get(book, "f4"));
+
+        resolver.set(book, "f1", "new:f1");
+        resolver.set(book, "f2", "new:f2");
+        resolver.set(book, "f4", 8);
+        assertEquals("new:f1", resolver.getPropertyGetter("f1").get(book));
+        assertEquals("new:f2", resolver.getPropertyGetter("f2").get(book));
+        assertEquals(8, resolver.getPropertyGetter("f4").get(book));
+        assertNull(resolver.getPropertyGetter("unknown"));
+
+        Exception exception = assertThrows(ScriptRuntimeException.class,
+                () -> resolver.set(book, "f5", "f5"));
+        assertEquals("Unwriteable property " + Book.class.getName() + "#f5", exception.getMessage());
+        exception = assertThrows(ScriptRuntimeException.class,
+                () -> resolver.get(book, "unknown"));
+        assertEquals("Invalid property " + Book.class.getName() + "#unknown", exception.getMessage());
+
+        ResolverManager resolverManager = EngineManager.getEngine().getResolverManager();
+        assertTrue(resolverManager.resolvePropertyGetter(Book.class, "f2").getClass()
+                .getName().startsWith(MethodHandleBeanResolver.class.getName()));
+        assertEquals("new:f1", resolverManager.get(book, "f1"));
+        resolverManager.set(book, "f4", 16);
+        assertEquals(16, book.f4);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void test() throws Exception {
@@ -119,4 +167,50 @@ class AsmResolverManagerTest {
         assertEquals("Invalid property " + Foo.class.getName() + "#unXable", exception.getMessage());
 
     }
+
+    @Test
+    void propertyGetter() {
+        ResolverManager resolverManager = EngineManager.getEngine().getResolverManager();
+        Foo foo = new Foo();
+
+        PropertyGetter getter = resolverManager.resolvePropertyGetter(Foo.class, "f1");
+        assertTrue(getter.getClass().getName().startsWith("org.febit.wit.asm.PropertyGetter"));
+        assertSame(getter, resolverManager.resolvePropertyGetter(Foo.class, "f1"));
+        assertEquals("foo:f1", getter.get(foo));
+        assertEquals("foo:f2", resolverManager.resolvePropertyGetter(Foo.class, "f2").get(foo));
+        assertEquals(4, resolverManager.resolvePropertyGetter(Foo.class, "f4").get(foo));
+        assertEquals(5, resolverManager.resolvePropertyGetter(Foo.class, "f5").get(foo));
+
+        Exception exception = assertThrows(ScriptRuntimeException.class,
+                () -> resolverManager.resolvePropertyGetter(Foo.class, "unreadable").get(foo));
+        assertEquals("Unreadable property " + Foo.class.getName() + "#unreadable", exception.getMessage());
+        exception = assertThrows(ScriptRuntimeException.class,
+                () -> resolverManager.resolvePropertyGetter(Foo.class, "unXable").get(foo));
+        assertEquals("Invalid property " + Foo.class.getName() + "#unXable", exception.getMessage());
+
+        // not public
+        assertEquals("f2", resolverManager.resolvePropertyGetter(Book.class, "f2").get(new Book()));
+    }
+
+    @Test
+    void propertyInlineCache() throws ResourceNotFoundException {
+        Map<String, Object> map = new HashMap<>();
+        map.put("f1", "map:f1");
+        Foo foo = new Foo();
+        foo.f1 = "foo2:f1";
+        List<Object> beans = Arrays.asList(new Foo(), map, new Book(), foo, null,
+                new Foo() {
+                    {
+                        f1 = "anonymous:f1";
+                    }
+                },
+                new TreeMap<>(map), new Foo());
+
+        StringWriter writer = new StringWriter();
+        // twice, turns megamorphic at second loop
+        EngineManager.getTemplate("code: var beans; for(i: 1..2){ for(bean : beans){ echo bean.f1; echo ','; } }")
+                .merge(Collections.singletonMap("beans", beans), writer);
+        String expected = "foo:f1,map:f1,f1,foo2:f1,,anonymous:f1,map:f1,foo:f1,";
+        assertEquals(expected + expected, writer.toString());
+    }
 }
@@ -0,0 +1,195 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.asm;
+
+import org.febit.wit.Engine;
+import org.febit.wit.EngineManager;
+import org.febit.wit.Template;
+import org.febit.wit.Vars;
+import org.febit.wit.core.Parser;
+import org.febit.wit.core.ast.TemplateAST;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.impl.WriterOut;
+import org.febit.wit.test.tmpls.auto.etc.StaticFields;
+import org.febit.wit.util.ClassUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author zqq90
+ */
+class AsmTemplateCompilerTest {
+
+    private static final String CODE = "code: "
+            + "var list = [1, 2, 3, 4, 5];"
+            + "{ var a = \"a\"; echo a; { var b = \"b\"; echo a + b; } }"
+            + "if (list) { echo 'T'; } else { echo 'F'; }"
+            + "if (!list) { echo 'F'; } else { echo 'T'; }"
+            + "if (list.size != 5) { echo 'F'; }"
+            + "for (i : list) { if (i == 2) { continue; } if (i == 4) { break; } echo i; }"
+            + "echo list[4];";
+
+    @Test
+    void compile() throws ResourceNotFoundException {
+        Template template = EngineManager.getTemplate(CODE);
+        TemplateAST ast = Parser.parse(template);
+        TemplateAST compiled = AsmTemplateCompiler.compile(ast);
+
+        assertEquals(1, compiled.getStatements().length);
+        assertTrue(compiled.getStatements()[0] instanceof AsmTemplateStatement);
+        assertEquals(ast.getCreatedAt(), compiled.getCreatedAt());
+        assertEquals(ast.getResourceVersion(), compiled.getResourceVersion());
+
+        assertEquals("aabTT135", execute(template, compiled));
+        assertEquals(execute(template, ast), execute(template, compiled));
+    }
+
+    @Test
+    void collectable() throws ResourceNotFoundException, InterruptedException {
+        Template template = EngineManager.getTemplate(CODE);
+        TemplateAST ast = Parser.parse(template);
+
+        Class<?> type = codeType(AsmTemplateCompiler.compile(ast));
+        assertNotSame(type.getClassLoader(), codeType(AsmTemplateCompiler.compile(ast)).getClassLoader());
+
+        WeakReference<Class<?>> ref = new WeakReference<>(codeType(AsmTemplateCompiler.compile(ast)));
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    void mergeAutoTests() {
+        // auto tests change globals, so both engines should be fresh
+        Engine interpreted = Engine.create("/febit-wit-test.wim", null);
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.compileMode", Engine.COMPILE_MODE_BYTECODE);
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        assertTrue(engine.isBytecodeCompileMode());
+
+        File rootDir = new File(ClassUtil.getDefaultClassLoader()
+                .getResource("org/febit/wit/test/tmpls/auto/flag").getFile()).getParentFile();
+        Stream.of(rootDir.list())
+                .filter(f -> f.endsWith(".wit"))
+                .map(f -> "/auto/" + f)
+                .forEach(name -> assertArrayEquals(
+                        merge(interpreted, name),
+                        merge(engine, name),
+                        name));
+    }
+
+    @Test
+    void tiered() throws ResourceNotFoundException, InterruptedException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.compileMode", Engine.COMPILE_MODE_TIERED);
+        params.put("engine.compileThreshold", 3);
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        assertTrue(engine.isTieredCompileMode());
+
+        Template template = engine.getTemplate(CODE);
+        // parsed at first merge
+        template.reload();
+        assertEquals("aabTT135", merge(template));
+        assertEquals("aabTT135", merge(template));
+        assertEquals(Template.Tier.INTERPRETED, template.getTier());
+        assertEquals("aabTT135", merge(template));
+        assertNotEquals(Template.Tier.INTERPRETED, template.getTier());
+
+        for (int i = 0; i < 100 && template.getTier() == Template.Tier.COMPILING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Template.Tier.COMPILED, template.getTier());
+        assertEquals("aabTT135", merge(template));
+
+        template.reload();
+        assertEquals(Template.Tier.INTERPRETED, template.getTier());
+
+        // only cached templates
+        engine.getTemplate("/helloTest.wit").merge();
+        assertEquals(Template.Tier.INTERPRETED, engine.getTemplateTiers().get("/helloTest.wit"));
+        assertNull(engine.getTemplateTiers().get(template.getName()));
+    }
+
+    @Test
+    void tieredUnloadReplaced() throws ResourceNotFoundException, InterruptedException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.compileMode", Engine.COMPILE_MODE_TIERED);
+        params.put("engine.compileThreshold", 1);
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        Template template = engine.getTemplate(CODE);
+
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        // unload garbage of other tests first
+        System.gc();
+        final long unloaded = classLoading.getUnloadedClassCount();
+
+        final int rounds = 5;
+        for (int round = 0; round < rounds; round++) {
+            template.reload();
+            assertEquals("aabTT135", merge(template));
+            for (int i = 0; i < 100 && template.getTier() != Template.Tier.COMPILED; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(Template.Tier.COMPILED, template.getTier());
+            assertEquals("aabTT135", merge(template));
+        }
+        // drop the last one
+        template.reload();
+
+        gc(classLoading, unloaded + rounds);
+        assertTrue(classLoading.getUnloadedClassCount() >= unloaded + rounds);
+    }
+
+    private static void gc(ClassLoadingMXBean classLoading, long expectedUnloaded) throws InterruptedException {
+        for (int i = 0; i < 50 && classLoading.getUnloadedClassCount() < expectedUnloaded; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    private static String merge(Template template) {
+        StringWriter writer = new StringWriter();
+        template.merge(writer);
+        return writer.toString();
+    }
+
+    private static Class<?> codeType(TemplateAST compiled) {
+        return ((AsmTemplateStatement) compiled.getStatements()[0]).getCode().getClass();
+    }
+
+    private static String execute(Template template, TemplateAST ast) {
+        StringWriter writer = new StringWriter();
+        ast.execute(template, new WriterOut(writer, template.getEngine()), Vars.EMPTY);
+        return writer.toString();
+    }
+
+    private static byte[] merge(Engine engine, String name) {
+        // nativeTest.wit changes this static field
+        StaticFields.field2 = "field2";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            engine.getTemplate(name).merge(out);
+        } catch (ResourceNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache;
+
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.Vars;
+import org.febit.wit.core.ast.TemplateAST;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.impl.WriterOut;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author zqq90
+ */
+class AstBundleTest {
+
+    @Test
+    void test() throws IOException, ClassNotFoundException, ResourceNotFoundException {
+        Engine engine = Engine.create("/febit-wit-test.wim", null);
+        AstBundle bundle = AstBundle.create(engine);
+        assertTrue(bundle.add(engine.getTemplate("/auto/switchTest.wit")));
+        assertTrue(bundle.add(engine.getTemplate("/auto/operators.wit")));
+        // natives are not serializable
+        assertFalse(bundle.add(engine.getTemplate("/helloTest.wit")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bundle.write(out);
+        AstBundle loaded = AstBundle.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(bundle.getNames(), loaded.getNames());
+
+        // restart
+        engine = Engine.create("/febit-wit-test.wim", null);
+        assertTrue(loaded.isCompatible(engine));
+        Template template = engine.getTemplate("/auto/switchTest.wit");
+        TemplateAST ast = loaded.get(template, true);
+        assertNotNull(ast);
+        assertEquals(template.getResource().version(), ast.getResourceVersion());
+        assertEquals(merge(template), execute(template, ast));
+        assertNull(loaded.get(engine.getTemplate("/helloTest.wit"), false));
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.looseVar", "true");
+        assertFalse(loaded.isCompatible(Engine.create("/febit-wit-test.wim", params)));
+    }
+
+    private static String merge(Template template) {
+        StringWriter writer = new StringWriter();
+        template.merge(writer);
+        return writer.toString();
+    }
+
+    private static String execute(Template template, TemplateAST ast) {
+        StringWriter writer = new StringWriter();
+        ast.execute(template, new WriterOut(writer, template.getEngine()), Vars.EMPTY);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,115 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.cache;
+
+import org.febit.wit.Engine;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.test.tmpls.auto.etc.StaticFields;
+import org.febit.wit.util.ClassUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author zqq90
+ */
+class FileAstCacheTest {
+
+    @Test
+    void test(@TempDir Path dir) throws ResourceNotFoundException {
+        String[] names = Stream.of(new File(ClassUtil.getDefaultClassLoader()
+                .getResource("org/febit/wit/test/tmpls/auto/flag").getFile()).getParentFile().list())
+                .filter(f -> f.endsWith(".wit"))
+                .map(f -> "/auto/" + f)
+                .toArray(String[]::new);
+
+        Engine engine = createEngine(dir, false);
+        Map<String, byte[]> results = new HashMap<>();
+        for (String name : names) {
+            results.put(name, merge(engine, name));
+        }
+        assertTrue(dir.toFile().list().length > names.length / 2);
+
+        // restart
+        engine = createEngine(dir, false);
+        assertNotNull(engine.getAstCache().get(engine.getTemplate("/auto/switchTest.wit")));
+        for (String name : names) {
+            assertArrayEquals(results.get(name), merge(engine, name), name);
+        }
+
+        // settings changed
+        engine = createEngine(dir, true);
+        assertNull(engine.getAstCache().get(engine.getTemplate("/auto/switchTest.wit")));
+    }
+
+    @Test
+    void classesChanged(@TempDir Path dir) throws ResourceNotFoundException, IOException {
+        Engine engine = createEngine(dir, false);
+        String name = "/auto/switchTest.wit";
+        byte[] expected = merge(engine, name);
+        Path file = dir.resolve(AstSerializer.sha1Hex(engine.getTemplate(name).getName()) + ".ast");
+        assertTrue(Files.isRegularFile(file));
+
+        // as written by other versions of TemplateAST
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] className = "org.febit.wit.core.ast.TemplateAST".getBytes(StandardCharsets.UTF_8);
+        int suid = indexOf(bytes, className) + className.length + 7;
+        assertTrue(suid > className.length);
+        bytes[suid]++;
+        Files.write(file, bytes);
+
+        // missed, and cached again
+        engine = createEngine(dir, false);
+        assertNull(engine.getAstCache().get(engine.getTemplate(name)));
+        assertArrayEquals(expected, merge(engine, name));
+        engine = createEngine(dir, false);
+        assertNotNull(engine.getAstCache().get(engine.getTemplate(name)));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        outer:
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            for (int j = 0; j < part.length; j++) {
+                if (bytes[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static Engine createEngine(Path dir, boolean looseVar) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("astCache.@class", "fileAstCache");
+        params.put("fileAstCache.dir", dir.toString());
+        params.put("engine.looseVar", String.valueOf(looseVar));
+        return Engine.create("/febit-wit-test.wim", params);
+    }
+
+    private static byte[] merge(Engine engine, String name) {
+        // nativeTest.wit changes this static field
+        StaticFields.field2 = "field2";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            engine.getTemplate(name).merge(out);
+        } catch (ResourceNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
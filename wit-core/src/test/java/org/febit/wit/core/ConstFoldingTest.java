@@ -0,0 +1,61 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.core;
+
+import org.febit.wit.EngineManager;
+import org.febit.wit.Template;
+import org.febit.wit.core.ast.Statement;
+import org.febit.wit.core.ast.statements.If;
+import org.febit.wit.core.ast.statements.IfElse;
+import org.febit.wit.core.ast.statements.IfNot;
+import org.febit.wit.core.ast.statements.Interpolation;
+import org.febit.wit.core.ast.statements.Switch;
+import org.febit.wit.core.text.impl.SimpleTextStatement;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * @author zqq90
+ */
+class ConstFoldingTest {
+
+    @Test
+    void test() throws ResourceNotFoundException {
+        Template template = EngineManager.getTemplate("/auto/constFolding.wit");
+
+        int switchCount = 0;
+        for (Statement statement : Parser.parse(template).getStatements()) {
+            assertFalse(statement instanceof If
+                    || statement instanceof IfElse
+                    || statement instanceof IfNot
+                    || statement instanceof Interpolation, "Not folded: " + statement.getClass());
+            if (statement instanceof Switch) {
+                switchCount++;
+            }
+        }
+        // only the switch with breaks
+        assertEquals(1, switchCount);
+
+        StringWriter writer = new StringWriter();
+        template.merge(writer);
+        assertEquals("[b-]", writer.toString().trim());
+    }
+
+    @Test
+    void mergeTexts() throws ResourceNotFoundException {
+        Template template = EngineManager.getTemplate("/auto/textMerge.wit");
+
+        Statement[] statements = Parser.parse(template).getStatements();
+        // text, block, assign, interpolation, text
+        assertEquals(5, statements.length);
+        assertEquals(SimpleTextStatement.class, statements[0].getClass());
+
+        StringWriter writer = new StringWriter();
+        template.merge(writer);
+        assertEquals("text1text2a-text3inner1inner21end", writer.toString().trim());
+    }
+}
@@ -0,0 +1,81 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class VariantIndexerTest {
+
+    private static VariantIndexer create(VariantIndexer parent, int size, int indexFrom, String... extra) {
+        String[] names = new String[size + extra.length];
+        int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = i < size ? "var" + i : extra[i - size];
+            indexes[i] = indexFrom + i;
+        }
+        return new VariantIndexer(parent, names, indexes);
+    }
+
+    private static void assertIndexes(VariantIndexer indexer, int size, int indexFrom) {
+        for (int i = 0; i < size; i++) {
+            // not the same instance
+            assertEquals(indexFrom + i, indexer.getCurrentIndex(new String("var" + i)));
+        }
+        assertEquals(-1, indexer.getCurrentIndex("missing"));
+        assertEquals(-1, indexer.getCurrentIndex(null));
+    }
+
+    @Test
+    void lookup() throws IOException, ClassNotFoundException {
+        for (int size : new int[]{0, 1, 7, 8, 9, 31, 32, 100}) {
+            VariantIndexer indexer = create(null, size, 10);
+            assertIndexes(indexer, size, 10);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(indexer);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertIndexes((VariantIndexer) in.readObject(), size, 10);
+            }
+        }
+    }
+
+    @Test
+    void collisions() {
+        // "Aa" and "BB" have the same hash code
+        VariantIndexer indexer = create(null, 10, 0, "Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa");
+        assertEquals(10, indexer.getCurrentIndex("Aa"));
+        assertEquals(11, indexer.getCurrentIndex("BB"));
+        assertEquals(12, indexer.getCurrentIndex("AaAa"));
+        assertEquals(13, indexer.getCurrentIndex("BBBB"));
+        assertEquals(14, indexer.getCurrentIndex("AaBB"));
+        assertEquals(15, indexer.getCurrentIndex("BBAa"));
+        assertEquals(-1, indexer.getCurrentIndex("BBBBBB"));
+    }
+
+    @Test
+    void parent() {
+        VariantIndexer root = create(null, 20, 0, "shadowed");
+        VariantIndexer child = create(root, 3, 100, "shadowed", "own");
+
+        assertEquals(100, child.getIndex("var0"));
+        assertEquals(5, child.getIndex("var5"));
+        assertEquals(19, child.getIndex("var19"));
+        assertEquals(104, child.getIndex("own"));
+        assertEquals(103, child.getIndex("shadowed"));
+        assertEquals(20, root.getIndex("shadowed"));
+        assertEquals(-1, child.getIndex("missing"));
+        assertEquals(-1, child.getCurrentIndex("var5"));
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.core.text.impl;
+
+import org.febit.wit.EngineManager;
+import org.febit.wit.Template;
+import org.febit.wit.Vars;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.impl.DiscardOut;
+import org.febit.wit.util.InternedEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author zqq90
+ */
+class SimpleTextStatementTest {
+
+    private static final String TEXT = "静态文本 static text";
+
+    static class RecordingOut extends DiscardOut {
+
+        final List<byte[]> immutables = new ArrayList<>();
+
+        RecordingOut(String encoding) {
+            super(encoding, true);
+        }
+
+        @Override
+        public void writeImmutable(byte[] bytes) {
+            immutables.add(bytes);
+        }
+    }
+
+    @Test
+    void encodings() throws ResourceNotFoundException, UnsupportedEncodingException {
+        Template template = EngineManager.getTemplate("string:" + TEXT);
+        String[] encodings = {"UTF-8", "GBK", "UTF-16BE", "GB18030", "GB2312", "UTF-16LE", "UTF-32BE"};
+        for (int round = 0; round < 2; round++) {
+            for (String encoding : encodings) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                template.merge(out, encoding);
+                assertArrayEquals(TEXT.getBytes(encoding), out.toByteArray(), encoding);
+            }
+        }
+    }
+
+    @Test
+    void cached() throws ResourceNotFoundException {
+        Template template = EngineManager.getTemplate("string:" + TEXT);
+        RecordingOut out = new RecordingOut("GBK");
+        template.merge(Vars.EMPTY, out);
+        template.merge(Vars.EMPTY, out);
+        assertEquals(2, out.immutables.size());
+        assertSame(out.immutables.get(0), out.immutables.get(1));
+        assertSame(InternedEncoding.intern("GBK"), out.getEncoding());
+    }
+}
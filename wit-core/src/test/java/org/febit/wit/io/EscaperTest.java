@@ -0,0 +1,89 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io;
+
+import org.febit.wit.Engine;
+import org.febit.wit.EngineManager;
+import org.febit.wit.Vars;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.impl.OutputStreamOut;
+import org.febit.wit.util.InternedEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author zqq90
+ */
+class EscaperTest {
+
+    private static final String RAW = "a<b>&\"c\"'d'/\\\n中文\u2028end";
+
+    @Test
+    void of() {
+        assertNull(Escaper.of(null));
+        assertNull(Escaper.of(""));
+        assertNull(Escaper.of("none"));
+        assertSame(Escaper.HTML, Escaper.of("html"));
+        assertSame(Escaper.JS, Escaper.of(" JS "));
+        assertThrows(IllegalArgumentException.class, () -> Escaper.of("unknown"));
+    }
+
+    @Test
+    void escape() {
+        assertEquals("a&lt;b&gt;&amp;&quot;c&quot;&#39;d&#39;/\\\n中文\u2028end", Escaper.HTML.escape(RAW));
+        assertEquals("a&lt;b&gt;&amp;&quot;c&quot;&apos;d&apos;/\\\n中文\u2028end", Escaper.XML.escape(RAW));
+        assertEquals("a\\u003Cb\\u003E\\u0026\\\"c\\\"\\'d\\'\\/\\\\\\n中文\\u2028end", Escaper.JS.escape(RAW));
+        assertEquals("\\u0000\\u001F", Escaper.JS.escape("\u0000\u001F"));
+
+        String plain = "nothing to escape";
+        assertSame(plain, Escaper.HTML.escape(plain));
+    }
+
+    @Test
+    void write() {
+        for (Escaper escaper : Escaper.values()) {
+            String expected = escaper.escape(RAW);
+            byte[] utf8 = RAW.getBytes(StandardCharsets.UTF_8);
+
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            Out out = new OutputStreamOut(buf, InternedEncoding.UTF_8, EngineManager.getEngine());
+            escaper.write(out, RAW);
+            escaper.write(out, RAW.toCharArray(), 0, RAW.length());
+            escaper.writeUtf8(out, utf8, 0, utf8.length);
+            assertEquals(expected + expected + expected, new String(buf.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void merge() throws ResourceNotFoundException {
+        String template = "string:<% var a, b; %><b title=\"${a}\">${b}</b>${1}${\"<const>\"}<% echo a; %>";
+        String expected = "<b title=\"&lt;a&gt;\">中&amp;文</b>1&lt;const&gt;<a>";
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("a", "<a>");
+        vars.put("b", "中&文".getBytes(StandardCharsets.UTF_8));
+
+        for (String mode : new String[]{Engine.COMPILE_MODE_INTERPRETED, Engine.COMPILE_MODE_BYTECODE}) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("engine.escape", "html");
+            params.put("engine.compileMode", mode);
+            Engine engine = Engine.create("/febit-wit-test.wim", params);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            engine.getTemplate(template).merge(Vars.of(vars), out);
+            assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8), mode);
+
+            StringWriter writer = new StringWriter();
+            engine.getTemplate(template).merge(Vars.of(vars), writer);
+            assertEquals(expected, writer.toString(), mode);
+        }
+    }
+}
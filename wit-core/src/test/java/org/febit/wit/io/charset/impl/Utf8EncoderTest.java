@@ -0,0 +1,36 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.charset.impl;
+
+import org.febit.wit.io.Buffers;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class Utf8EncoderTest {
+
+    @Test
+    void writeRange() throws IOException {
+        Utf8Encoder encoder = new Utf8Encoder(Buffers.getMiniPeers());
+        String string = "0123456789<p>中文</p>abcdefghijklmn";
+        for (int off = 0; off < string.length(); off++) {
+            for (int len = 0; off + len <= string.length(); len++) {
+                String expected = string.substring(off, off + len);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                encoder.write(string, off, len, out);
+                assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+                out.reset();
+                encoder.write(string.toCharArray(), off, len, out);
+                assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.EngineManager;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.util.InternedEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class CaptureOutTest {
+
+    private static String expected() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            buf.append("<li>").append(i).append(" 测试</li>");
+            if (i % 100 == 0) {
+                buf.append(immutableText());
+            }
+        }
+        return buf.toString();
+    }
+
+    private static String immutableText() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            buf.append("immutable-text-");
+        }
+        return buf.toString();
+    }
+
+    private static void writeAll(CaptureOut out) {
+        byte[] immutable = immutableText().getBytes(StandardCharsets.UTF_8);
+        char[] open = "<li>".toCharArray();
+        for (int i = 0; i < 2000; i++) {
+            out.write(open);
+            out.writeInt(i);
+            out.write(" 测试</li>");
+            if (i % 100 == 0) {
+                out.writeImmutable(immutable);
+            }
+        }
+    }
+
+    @Test
+    void bytes() {
+        String expected = expected();
+        CaptureOut out = new CaptureOut(InternedEncoding.UTF_8, true, EngineManager.getEngine());
+        for (int round = 0; round < 2; round++) {
+            writeAll(out);
+            byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+            assertEquals(expectedBytes.length, out.size());
+            assertArrayEquals(expectedBytes, (byte[]) out.snapshot());
+
+            ByteArrayOutputStream target = new ByteArrayOutputStream();
+            out.writeTo(new OutputStreamOut(target, InternedEncoding.UTF_8, EngineManager.getEngine()));
+            assertArrayEquals(expectedBytes, target.toByteArray());
+            out.release();
+            assertEquals(0, out.size());
+        }
+    }
+
+    @Test
+    void chars() {
+        String expected = expected();
+        CaptureOut out = new CaptureOut(InternedEncoding.UTF_8, false, EngineManager.getEngine());
+        for (int round = 0; round < 2; round++) {
+            writeAll(out);
+            assertEquals(expected.length(), out.size());
+            assertArrayEquals(expected.toCharArray(), (char[]) out.snapshot());
+
+            StringWriter target = new StringWriter();
+            out.writeTo(new WriterOut(target, InternedEncoding.UTF_8, EngineManager.getEngine()));
+            assertEquals(expected, target.toString());
+            out.release();
+        }
+    }
+
+    @Test
+    void redirect() throws ResourceNotFoundException {
+        String template = "string:<% var s, text; { %>${s}<% } => text; echo text.length; %>";
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("s", expected());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EngineManager.getTemplate(template).merge(vars, bytes, "UTF-8");
+        assertEquals(String.valueOf(expected().getBytes(StandardCharsets.UTF_8).length), bytes.toString());
+
+        StringWriter writer = new StringWriter();
+        EngineManager.getTemplate(template).merge(vars, writer);
+        assertEquals(String.valueOf(expected().length()), writer.toString());
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.Engine;
+import org.febit.wit.Vars;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.util.InternedEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author zqq90
+ */
+class ChannelOutTest {
+
+    /**
+     * Accepts at most 100 bytes per write.
+     */
+    static class RecordingChannel implements GatheringByteChannel {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int gatheringWrites;
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            gatheringWrites++;
+            long written = 0;
+            for (int i = offset; i < offset + length && written < 100; i++) {
+                written += write(srcs[i], (int) (100 - written));
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            return write(src, 100);
+        }
+
+        private int write(ByteBuffer src, int max) {
+            int n = Math.min(max, src.remaining());
+            for (int i = 0; i < n; i++) {
+                out.write(src.get());
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void write() throws IOException {
+        RecordingChannel channel = new RecordingChannel();
+        ChannelOut out = new ChannelOut(channel, InternedEncoding.intern("UTF-8"),
+                Engine.create("/febit-wit-test.wim", null).getCoderFactory(), 16);
+
+        byte[] text = new byte[80];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (byte) ('a' + i % 26);
+        }
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 5; i++) {
+            out.write("中文" + i);
+            expected.write(("中文" + i).getBytes(StandardCharsets.UTF_8));
+            out.writeImmutable(text);
+            expected.write(text);
+            out.write(new byte[]{1, 2, 3});
+            expected.write(new byte[]{1, 2, 3});
+        }
+        out.write(text, 10, 20);
+        expected.write(text, 10, 20);
+        out.finish();
+        assertTrue(channel.gatheringWrites > 0);
+        assertArrayEquals(expected.toByteArray(), channel.out.toByteArray());
+
+        // writes after finished go to the channel directly
+        out.write("end");
+        expected.write("end".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(expected.toByteArray(), channel.out.toByteArray());
+    }
+
+    @Test
+    void merge() throws ResourceNotFoundException, IOException {
+        String template = "string:<% for (i : 1..500) { %>"
+                + "static text, longer than sixty-four bytes, held as slices without copying: ${i},"
+                + "<% } %>end";
+        Engine engine = Engine.create("/febit-wit-test.wim", null);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        engine.getTemplate(template).merge(expected);
+
+        RecordingChannel gathering = new RecordingChannel();
+        engine.getTemplate(template).merge(gathering);
+        assertArrayEquals(expected.toByteArray(), gathering.out.toByteArray());
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        engine.getTemplate(template).merge(Channels.newChannel(plain));
+        assertArrayEquals(expected.toByteArray(), plain.toByteArray());
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        engine.getTemplate("string:中文${1}").merge(Vars.EMPTY, Channels.newChannel(encoded), "GBK");
+        assertEquals("中文1", new String(encoded.toByteArray(), "GBK"));
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.Engine;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class ChunkedOutputStreamTest {
+
+    static class RecordingOutputStream extends ByteArrayOutputStream {
+
+        final List<Integer> writes = new ArrayList<>();
+
+        @Override
+        public synchronized void write(int b) {
+            writes.add(1);
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes.add(len);
+            super.write(b, off, len);
+        }
+    }
+
+    @Test
+    void chunks() throws IOException {
+        RecordingOutputStream sink = new RecordingOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (OutputStream out = new ChunkedOutputStream(sink, 8)) {
+            for (int i = 0; i < 10; i++) {
+                byte[] bytes = ("ab" + i).getBytes(StandardCharsets.UTF_8);
+                out.write(bytes, 0, bytes.length);
+                expected.write(bytes, 0, bytes.length);
+            }
+            out.write('z');
+            expected.write('z');
+        }
+        // 31 bytes in total
+        assertEquals(31, expected.size());
+        assertEquals(Arrays.asList(8, 8, 8, 7), sink.writes);
+        assertArrayEquals(expected.toByteArray(), sink.toByteArray());
+    }
+
+    @Test
+    void largeWrites() throws IOException {
+        RecordingOutputStream sink = new RecordingOutputStream();
+        ChunkedOutputStream out = new ChunkedOutputStream(sink, 4);
+        out.write(new byte[]{1, 2});
+        out.write(new byte[]{3, 4, 5, 6, 7, 8, 9, 10, 11});
+        out.finish();
+        // writes after finished go to the sink directly
+        out.write(12);
+        // fills the chunk, then the large remains go to the sink directly
+        assertEquals(Arrays.asList(4, 7, 1), sink.writes);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}, sink.toByteArray());
+    }
+
+    @Test
+    void merge() throws ResourceNotFoundException {
+        String template = "string:<% for (i : 1..200) { %>item-${i},<% } %>end";
+
+        Engine plain = Engine.create("/febit-wit-test.wim", null);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        plain.getTemplate(template).merge(expected);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.outChunkSize", "64");
+        params.put("engine.outFlush", "true");
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        assertEquals(64, engine.getOutChunkSize());
+
+        RecordingOutputStream sink = new RecordingOutputStream();
+        engine.getTemplate(template).merge(sink);
+        assertArrayEquals(expected.toByteArray(), sink.toByteArray());
+        for (int i = 0; i < sink.writes.size() - 1; i++) {
+            assertEquals(64, sink.writes.get(i).intValue());
+        }
+
+        StringWriter writer = new StringWriter();
+        engine.getTemplate(template).merge(writer);
+        assertEquals(new String(expected.toByteArray(), StandardCharsets.UTF_8), writer.toString());
+    }
+}
@@ -0,0 +1,145 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author zqq90
+ */
+class ChunkedWriterTest {
+
+    static class RecordingWriter extends StringWriter {
+
+        final List<Integer> writes = new ArrayList<>();
+        int flushes;
+
+        @Override
+        public void write(int c) {
+            writes.add(1);
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] chars, int off, int len) {
+            writes.add(len);
+            super.write(chars, off, len);
+        }
+
+        @Override
+        public void write(String string, int off, int len) {
+            writes.add(len);
+            super.write(string, off, len);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+            super.flush();
+        }
+    }
+
+    @Test
+    void chunks() throws IOException {
+        RecordingWriter sink = new RecordingWriter();
+        StringBuilder expected = new StringBuilder();
+        try (Writer out = new ChunkedWriter(sink, 8)) {
+            for (int i = 0; i < 10; i++) {
+                String text = "ab" + i;
+                out.write(text, 0, text.length());
+                expected.append(text);
+            }
+            out.write('z');
+            expected.append('z');
+        }
+        // 31 chars in total
+        assertEquals(31, expected.length());
+        assertEquals(Arrays.asList(8, 8, 8, 7), sink.writes);
+        assertEquals(expected.toString(), sink.toString());
+    }
+
+    @Test
+    void boundaries() throws IOException {
+        RecordingWriter sink = new RecordingWriter();
+        ChunkedWriter out = new ChunkedWriter(sink, 4);
+        // exactly fills the chunk
+        out.write("abcd");
+        assertEquals(Arrays.asList(4), sink.writes);
+        // crosses the boundary, by offsets
+        out.write("__efg__", 2, 3);
+        out.write("__hij__".toCharArray(), 2, 3);
+        assertEquals(Arrays.asList(4, 4), sink.writes);
+        out.write('k');
+        out.write('l');
+        assertEquals(Arrays.asList(4, 4, 4), sink.writes);
+        // nothing left
+        out.finish();
+        assertEquals(Arrays.asList(4, 4, 4), sink.writes);
+        assertEquals("abcdefghijkl", sink.toString());
+    }
+
+    @Test
+    void largeWrites() throws IOException {
+        RecordingWriter sink = new RecordingWriter();
+        ChunkedWriter out = new ChunkedWriter(sink, 4);
+        out.write("ab");
+        out.write("_cdefghijk_".toCharArray(), 1, 9);
+        // the chunk is empty, goes to the sink directly
+        out.write("_lmnopq_", 1, 6);
+        out.write("rs");
+        out.finish();
+        // writes after finished go to the sink directly
+        out.write('t');
+        out.write("uv".toCharArray(), 0, 2);
+        // fills the chunk, then the large remains go to the sink directly
+        assertEquals(Arrays.asList(4, 7, 6, 2, 1, 2), sink.writes);
+        assertEquals("abcdefghijklmnopqrstuv", sink.toString());
+    }
+
+    @Test
+    void flush() throws IOException {
+        RecordingWriter sink = new RecordingWriter();
+        ChunkedWriter out = new ChunkedWriter(sink, 8);
+        out.write("abc");
+        assertEquals(0, sink.writes.size());
+        out.flush();
+        assertEquals(Arrays.asList(3), sink.writes);
+        assertEquals(1, sink.flushes);
+        out.write("defgh".toCharArray(), 0, 5);
+        out.finish();
+        // not flushed by finish
+        assertEquals(1, sink.flushes);
+        assertEquals(Arrays.asList(3, 5), sink.writes);
+        assertEquals("abcdefgh", sink.toString());
+    }
+
+    @Test
+    void pooled() throws IOException {
+        StripedBufferPool pool = new StripedBufferPool();
+        char[] chars = pool.getChars(300);
+        pool.release(chars);
+
+        RecordingWriter sink = new RecordingWriter();
+        ChunkedWriter out = new ChunkedWriter(sink, 300, pool);
+        for (int i = 0; i < 700; i++) {
+            out.write('a');
+        }
+        // limited by the chunk size, not the length of the pooled array
+        assertEquals(Arrays.asList(300, 300), sink.writes);
+        out.finish();
+        assertEquals(Arrays.asList(300, 300, 100), sink.writes);
+        assertEquals(700, sink.toString().length());
+
+        // returned to the pool
+        assertSame(chars, pool.getChars(300));
+    }
+}
@@ -0,0 +1,66 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author zqq90
+ */
+class FastByteArrayOutputStreamTest {
+
+    @Test
+    void write() {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream(20);
+        out.write('a');
+        out.write("bcdefghij".getBytes(StandardCharsets.US_ASCII), 0, 9);
+        out.write("0123456789".getBytes(StandardCharsets.US_ASCII), 0, 10);
+        assertEquals(20, out.size());
+        byte[] bytes = out.toByteArray();
+        assertEquals("abcdefghij0123456789", new String(bytes, StandardCharsets.US_ASCII));
+        // full, not copied
+        assertSame(bytes, out.toByteArray());
+
+        out.write("more".getBytes(StandardCharsets.US_ASCII), 0, 4);
+        assertEquals("abcdefghij0123456789more", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+
+        FastCharArrayWriter writer = new FastCharArrayWriter(4);
+        writer.write('a');
+        writer.write("bcdefghij", 0, 9);
+        writer.write("0123456789".toCharArray(), 0, 10);
+        assertEquals(20, writer.size());
+        assertEquals("abcdefghij0123456789", writer.toString());
+    }
+
+    @Test
+    void mergeToBytes() throws ResourceNotFoundException {
+        Engine engine = Engine.create("/febit-wit-test.wim");
+        Template template = engine.getTemplate("string:<% var n; for (i : 1..n) { %>item-${i} 测试,<% } %>end");
+
+        for (int n : new int[]{10, 1000, 10, 5000, 3}) {
+            Map<String, Object> vars = new HashMap<>();
+            vars.put("n", n);
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            template.merge(vars, expected);
+            assertArrayEquals(expected.toByteArray(), template.mergeToBytes(vars));
+
+            ByteArrayOutputStream gbk = new ByteArrayOutputStream();
+            template.merge(vars, gbk, "GBK");
+            assertArrayEquals(gbk.toByteArray(), template.mergeToBytes(vars, "GBK"));
+
+            assertEquals(new String(expected.toByteArray(), StandardCharsets.UTF_8), template.mergeToString(vars));
+        }
+    }
+}
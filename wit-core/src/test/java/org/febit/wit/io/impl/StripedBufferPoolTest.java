@@ -0,0 +1,165 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.io.impl;
+
+import org.febit.wit.Engine;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.Buffers;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author zqq90
+ */
+class StripedBufferPoolTest {
+
+    @Test
+    void sizeClasses() {
+        StripedBufferPool pool = new StripedBufferPool();
+
+        assertEquals(256, pool.getChars(0).length);
+        assertEquals(256, pool.getChars(256).length);
+        assertEquals(512, pool.getChars(257).length);
+        assertEquals(65536, pool.getBytes(40000).length);
+
+        // larger than max size
+        assertEquals(70000, pool.getBytes(70000).length);
+    }
+
+    @Test
+    void reuse() {
+        StripedBufferPool pool = new StripedBufferPool();
+
+        char[] chars = pool.getChars(1000);
+        pool.release(chars);
+        assertSame(chars, pool.getChars(600));
+        assertNotSame(chars, pool.getChars(600));
+
+        byte[] bytes = pool.getBytes(100);
+        pool.release(bytes);
+        assertSame(bytes, pool.getBytes(200));
+
+        // not pooled
+        byte[] huge = pool.getBytes(70000);
+        pool.release(huge);
+        assertNotSame(huge, pool.getBytes(70000));
+        byte[] odd = new byte[300];
+        pool.release(odd);
+        assertNotSame(odd, pool.getBytes(300));
+    }
+
+    @Test
+    void directBuffers() {
+        StripedBufferPool pool = new StripedBufferPool();
+
+        ByteBuffer buffer = pool.getDirectBuffer(8192);
+        assertTrue(buffer.isDirect());
+        assertEquals(8192, buffer.capacity());
+        buffer.put((byte) 1);
+        pool.release(buffer);
+
+        ByteBuffer reused = pool.getDirectBuffer(5000);
+        assertSame(buffer, reused);
+        // cleared
+        assertEquals(0, reused.position());
+        assertEquals(8192, reused.remaining());
+
+        // not pooled
+        ByteBuffer heap = ByteBuffer.allocate(8192);
+        pool.release(heap);
+        assertNotSame(heap, pool.getDirectBuffer(8192));
+    }
+
+    @Test
+    void bounded() {
+        StripedBufferPool pool = new StripedBufferPool();
+        pool.stripes = 2;
+        pool.slotsPerStripe = 2;
+        pool.init();
+
+        byte[][] arrays = new byte[6][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = pool.getBytes(256);
+        }
+        for (byte[] array : arrays) {
+            pool.release(array);
+        }
+        int reused = 0;
+        for (int i = 0; i < arrays.length; i++) {
+            byte[] bytes = pool.getBytes(256);
+            for (byte[] array : arrays) {
+                if (bytes == array) {
+                    reused++;
+                }
+            }
+        }
+        assertEquals(4, reused);
+    }
+
+    @Test
+    void sharedByThreads() throws InterruptedException {
+        StripedBufferPool pool = new StripedBufferPool();
+        byte[][] released = new byte[1][];
+        Thread thread = new Thread(() -> {
+            released[0] = pool.getBytes(1024);
+            pool.release(released[0]);
+        });
+        thread.start();
+        thread.join();
+        assertSame(released[0], pool.getBytes(1024));
+    }
+
+    @Test
+    void buffers() {
+        StripedBufferPool pool = new StripedBufferPool();
+
+        Buffers buffers = Buffers.borrow(pool);
+        char[] chars = buffers.getChars(100);
+        assertEquals(256, chars.length);
+        assertSame(chars, buffers.getChars(200));
+        char[] larger = buffers.getChars(1000);
+        assertEquals(1024, larger.length);
+        // upgraded, the smaller one is returned
+        assertSame(chars, pool.getChars(100));
+
+        byte[] bytes = buffers.getBytes(10000);
+        buffers.release();
+        assertSame(larger, pool.getChars(1000));
+        assertSame(bytes, pool.getBytes(10000));
+
+        // still usable after released
+        assertTrue(buffers.getBytes(10).length >= 10);
+
+        assertSame(Buffers.getNormalPeers(), Buffers.borrow(null));
+    }
+
+    @Test
+    void merge() throws ResourceNotFoundException {
+        String template = "string:<% var s, text; { %>${s}<% } => text; echo text; %>";
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.encoding", "UTF-8");
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        assertTrue(engine.getBufferPool() instanceof StripedBufferPool);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            expected.append("ab");
+        }
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("s", expected.toString());
+        for (int i = 0; i < 3; i++) {
+            StringWriter writer = new StringWriter();
+            engine.getTemplate(template).merge(vars, writer);
+            assertEquals(expected.toString(), writer.toString());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.lang.method;
+
+import org.febit.wit.Engine;
+import org.febit.wit.EngineManager;
+import org.febit.wit.Template;
+import org.febit.wit.Vars;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class FunctionMethodDeclareTest {
+
+    private static String merge(String template) throws ResourceNotFoundException {
+        return EngineManager.getTemplate("string:" + template).mergeToString(Vars.EMPTY);
+    }
+
+    @Test
+    void cleared() throws ResourceNotFoundException {
+        assertEquals("null,null,null,", merge("<% var f = function(a) { var x; var r = x; x = a; return r; };"
+                + " for (i : 1..3) { var r = f(i); echo r == null ? \"null\" : r; echo \",\"; } %>"));
+        // default values of args
+        assertEquals("1-d,2-e,3-d,", merge("<% var f = function(a, b) { return a + \"-\" + (b == null ? \"d\" : b); };"
+                + " echo f(1) + \",\"; echo f(2, \"e\") + \",\"; echo f(3) + \",\"; %>"));
+    }
+
+    @Test
+    void recursion() throws ResourceNotFoundException {
+        assertEquals("55", merge("<% var fib; fib = function(n) { if (n < 2) { return n; } "
+                + "var a = fib(n - 1); var b = fib(n - 2); return a + b; }; echo fib(10); %>"));
+    }
+
+    @Test
+    void closures() throws ResourceNotFoundException {
+        // closures created in calls hold the sub-contexts
+        assertEquals("1,2,3,", merge("<% var create = function(n) { return function() { return n; }; };"
+                + " var c1 = create(1); var c2 = create(2); var c3 = create(3);"
+                + " echo c1() + \",\" + c2() + \",\" + c3() + \",\"; %>"));
+    }
+
+    @Test
+    void deepRecursion() throws ResourceNotFoundException {
+        // closures declared in each call, read scopes of the declaring call
+        assertEquals("0,124750", merge("<% var sum; sum = function(n) { var get = function() { return n; };"
+                + " if (n == 0) { return 0; } return get() + sum(n - 1); };"
+                + " var deepest; deepest = function(n) { var get = function() { return n; };"
+                + " return n == 0 ? get : deepest(n - 1); };"
+                + " echo deepest(499)(); echo \",\"; echo sum(499); %>"));
+    }
+
+    @Test
+    void concurrent() throws ResourceNotFoundException, InterruptedException, ExecutionException {
+        Template template = EngineManager.getTemplate("string:<% var n, f;"
+                + " f = function(a) { var s = a * 2; return s; };"
+                + " var sum = 0; for (i : 1..n) { sum = sum + f(i); } echo sum; %>");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int n = i % 50 + 1;
+                results.add(executor.submit(() -> template.mergeToString(Vars.of("n", n))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                final int n = i % 50 + 1;
+                assertEquals(String.valueOf(n * (n + 1)), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentGlobalClosures() throws ResourceNotFoundException, InterruptedException, ExecutionException {
+        // functions declared by init templates are shared by all merges
+        Map<String, Object> params = new HashMap<>();
+        params.put("engine.inits+", "/functionTest.init.wit");
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+        Template template = engine.getTemplate("string:<% var errors = 0;"
+                + " for (i : 1..200) { var c = counter(i); var d = counter(-i);"
+                + " if (c() != i + 1 || d() != 1 - i || c() != i + 2) { errors = errors + 1; } }"
+                + " echo errors; %>");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> template.mergeToString(Vars.EMPTY)));
+            }
+            for (Future<String> result : results) {
+                assertEquals("0", result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.resolvers.impl;
+
+import org.febit.wit.Engine;
+import org.febit.wit.Vars;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.io.Out;
+import org.febit.wit.resolvers.OutResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author zqq90
+ */
+class NumberOutResolverTest {
+
+    private static final String TEMPLATE = "string:${1}|${2L}|${1.5}|${1.5f}|${-3}";
+
+    public static class HashNumberResolver implements OutResolver<Number> {
+
+        @Override
+        public void render(Out out, Number number) {
+            out.write("#" + number);
+        }
+
+        @Override
+        public Class<Number> getMatchClass() {
+            return Number.class;
+        }
+    }
+
+    @Test
+    void defaults() throws ResourceNotFoundException {
+        Engine engine = Engine.create("/febit-wit-test.wim", null);
+        assertTrue(engine.getResolverManager().resolveOutResolver(Integer.class) instanceof NumberOutResolver);
+        assertTrue(engine.getResolverManager().resolveOutResolver(Float.class) instanceof CommonResolver);
+        assertEquals("1|2|1.5|1.5|-3", engine.getTemplate(TEMPLATE).mergeToString(Vars.EMPTY));
+    }
+
+    @Test
+    void configuredFirst() throws ResourceNotFoundException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("resolverManager.resolvers+", HashNumberResolver.class.getName());
+        Engine engine = Engine.create("/febit-wit-test.wim", params);
+
+        assertSame(HashNumberResolver.class, engine.getResolverManager().resolveOutResolver(Integer.class).getClass());
+        assertEquals("#1|#2|#1.5|#1.5|#-3", engine.getTemplate(TEMPLATE).mergeToString(Vars.EMPTY));
+    }
+}
@@ -0,0 +1,105 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.util;
+
+import org.febit.wit.EngineManager;
+import org.febit.wit.Vars;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author zqq90
+ */
+class NumberFormatUtilTest {
+
+    private static final long[] LONGS = {
+            0, 1, -1, 9, 10, -10, 99, 100, 12345, -12345,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+            999999999999L, -1000000000000L
+    };
+
+    private static final double[] DOUBLES = {
+            0.0, -0.0, 1.0, -1.0, 1.5, 0.1, 123.0, -123.0, 9999999.0, -9999999.0, 1e7, -1e7, 1e20,
+            1.0E-5, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE,
+            Double.MIN_VALUE
+    };
+
+    @Test
+    void formatLong() {
+        char[] chars = new char[NumberFormatUtil.MAX_LENGTH + 2];
+        byte[] bytes = new byte[NumberFormatUtil.MAX_LENGTH + 2];
+        for (long value : LONGS) {
+            int end = NumberFormatUtil.format(value, chars, 2);
+            assertEquals(String.valueOf(value), new String(chars, 2, end - 2));
+            end = NumberFormatUtil.format(value, bytes, 2);
+            assertEquals(String.valueOf(value), new String(bytes, 2, end - 2, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void formatDouble() {
+        char[] chars = new char[NumberFormatUtil.MAX_LENGTH];
+        byte[] bytes = new byte[NumberFormatUtil.MAX_LENGTH];
+        for (double value : DOUBLES) {
+            int end = NumberFormatUtil.format(value, chars, 0);
+            if (end >= 0) {
+                assertEquals(String.valueOf(value), new String(chars, 0, end));
+            }
+            assertEquals(end, NumberFormatUtil.format(value, bytes, 0));
+            if (end >= 0) {
+                assertEquals(String.valueOf(value), new String(bytes, 0, end, StandardCharsets.US_ASCII));
+            }
+        }
+        assertEquals(-1, NumberFormatUtil.format(-0.0, chars, 0));
+        assertEquals(-1, NumberFormatUtil.format(1.5, chars, 0));
+        assertEquals(-1, NumberFormatUtil.format(1e7, chars, 0));
+    }
+
+    @Test
+    void render() throws ResourceNotFoundException {
+        StringBuilder expected = new StringBuilder();
+        Map<String, Object> vars = new HashMap<>();
+        StringBuilder template = new StringBuilder("string:<% var longs, ints, doubles; %>");
+        for (int i = 0; i < LONGS.length; i++) {
+            template.append("${longs[").append(i).append("]},${ints[")
+                    .append(i).append("]},");
+            expected.append(LONGS[i]).append(',').append((int) LONGS[i]).append(',');
+        }
+        for (int i = 0; i < DOUBLES.length; i++) {
+            template.append("${doubles[").append(i).append("]},");
+            expected.append(DOUBLES[i]).append(',');
+        }
+        Long[] longs = new Long[LONGS.length];
+        Integer[] ints = new Integer[LONGS.length];
+        for (int i = 0; i < LONGS.length; i++) {
+            longs[i] = LONGS[i];
+            ints[i] = (int) LONGS[i];
+        }
+        Double[] doubles = new Double[DOUBLES.length];
+        for (int i = 0; i < DOUBLES.length; i++) {
+            doubles[i] = DOUBLES[i];
+        }
+        vars.put("longs", longs);
+        vars.put("ints", ints);
+        vars.put("doubles", doubles);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EngineManager.getTemplate(template.toString()).merge(Vars.of(vars), out);
+        assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        out.reset();
+        EngineManager.getTemplate(template.toString()).merge(Vars.of(vars), out, "UTF-16BE");
+        assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_16BE));
+
+        StringWriter writer = new StringWriter();
+        EngineManager.getTemplate(template.toString()).merge(Vars.of(vars), writer);
+        assertEquals(expected.toString(), writer.toString());
+    }
+}
@@ -16,6 +16,14 @@ class Utf8Test {
         byte[] buffer = new byte[string.length() * Utf8.MAX_BYTES_PER_CHAR];
         byte[] expr = string.getBytes(StandardCharsets.UTF_8);
         int used = Utf8.encode(buffer, string.toCharArray(), 0, string.length());
+        if (!match(expr, buffer, used)) {
+            return false;
+        }
+        used = Utf8.encode(buffer, string, 0, string.length());
+        return match(expr, buffer, used);
+    }
+
+    private boolean match(byte[] expr, byte[] buffer, int used) {
         if (used != expr.length) {
             return false;
         }
@@ -53,6 +61,19 @@ class Utf8Test {
         assertTrue(matchEncode("\u0080\u00CA\u01CA\u07FF"));
         assertTrue(matchEncode("\uD856\uDC65\uD866\uDC66"));
         assertTrue(matchEncode("\uD700\uE000"));
+        assertTrue(matchEncode("<div class=\"item\">1234567890</div>"));
+        assertTrue(matchEncode("<div class=\"item\">中文</div><div>\uD856\uDC65</div>"));
+    }
+
+    @Test
+    void testEncodeRange() {
+        String string = "<a href=\"#\">中文</a><a href=\"#\">abc</a>";
+        byte[] buffer = new byte[string.length() * Utf8.MAX_BYTES_PER_CHAR];
+        for (int from = 0; from < string.length(); from++) {
+            byte[] expr = string.substring(from).getBytes(StandardCharsets.UTF_8);
+            assertTrue(match(expr, buffer, Utf8.encode(buffer, string, from, string.length())));
+            assertTrue(match(expr, buffer, Utf8.encode(buffer, string.toCharArray(), from, string.length())));
+        }
     }
 
     @Test
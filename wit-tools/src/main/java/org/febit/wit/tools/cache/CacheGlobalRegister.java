@@ -5,13 +5,10 @@ import org.febit.wit.InternalContext;
 import org.febit.wit.exceptions.ScriptRuntimeException;
 import org.febit.wit.global.GlobalManager;
 import org.febit.wit.global.GlobalRegister;
-import org.febit.wit.io.impl.OutputStreamOut;
-import org.febit.wit.io.impl.WriterOut;
+import org.febit.wit.io.impl.CaptureOut;
 import org.febit.wit.lang.MethodDeclare;
 import org.febit.wit.util.ArrayUtil;
 
-import java.io.ByteArrayOutputStream;
-import java.io.CharArrayWriter;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -97,7 +94,13 @@ public class CacheGlobalRegister implements GlobalRegister {
             } else {
                 throw new ScriptRuntimeException("This method need a function argument.");
             }
-            context.write(cachingEntry.outed);
+            final Object outed = cachingEntry.outed;
+            if (outed instanceof byte[]) {
+                // never modified, since cached
+                context.outImmutable((byte[]) outed);
+            } else {
+                context.write(outed);
+            }
             return cachingEntry.returned;
         }
 
@@ -118,16 +121,12 @@ public class CacheGlobalRegister implements GlobalRegister {
                     ? Arrays.copyOfRange(args, argsStart, args.length)
                     : ArrayUtil.emptyObjects();
 
-            if (context.isByteStream) {
-                ByteArrayOutputStream out = new ByteArrayOutputStream(256);
-                returned = context.temporaryOut(new OutputStreamOut(out, context.encoding, context.getEngine()),
-                        c -> methodDeclare.invoke(c, methodArgs));
-                outted = out.toByteArray();
-            } else {
-                CharArrayWriter writer = new CharArrayWriter(256);
-                returned = context.temporaryOut(new WriterOut(writer, context.encoding, context.getEngine()),
-                        c -> methodDeclare.invoke(c, methodArgs));
-                outted = writer.toCharArray();
+            final CaptureOut out = new CaptureOut(context.encoding, context.isByteStream, context.getEngine());
+            try {
+                returned = context.temporaryOut(out, c -> methodDeclare.invoke(c, methodArgs));
+                outted = out.snapshot();
+            } finally {
+                out.release();
             }
             result = new CachingEntry(returned, outted);
             this.cacheProvider.put(key, result);
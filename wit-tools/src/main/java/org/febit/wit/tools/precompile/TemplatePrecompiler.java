@@ -0,0 +1,111 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.tools.precompile;
+
+import org.febit.wit.Engine;
+import org.febit.wit.cache.AstBundle;
+import org.febit.wit.exceptions.ParseException;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Precompiles templates into an AST bundle at build time, serve it by {@code bundleAstCache} at runtime.
+ * <p>
+ * Usage: {@code TemplatePrecompiler <engine config> <output bundle> <template dir> [suffix]}.
+ * Templates are named by their paths relative to the template dir, so the engine loader should map these names
+ * to the same files.
+ *
+ * @author zqq90
+ * @since 2.8.0
+ */
+public class TemplatePrecompiler {
+
+    public static final String DEFAULT_SUFFIX = ".wit";
+
+    private final Engine engine;
+
+    public TemplatePrecompiler(Engine engine) {
+        this.engine = engine;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: TemplatePrecompiler <engine config> <output bundle> <template dir> [suffix]");
+            System.exit(1);
+            return;
+        }
+        final File output = new File(args[1]);
+        final File dir = new File(args[2]);
+        final String suffix = args.length > 3 ? args[3] : DEFAULT_SUFFIX;
+
+        final Engine engine = Engine.create(args[0]);
+        final AstBundle bundle = new TemplatePrecompiler(engine).precompile(dir, suffix);
+
+        final File parent = output.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Can't create dir: " + parent);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            bundle.write(out);
+        }
+        System.out.println("Precompiled " + bundle.getNames().size() + " templates into: " + output);
+    }
+
+    /**
+     * Precompile templates in the given dir.
+     *
+     * @param dir    template dir
+     * @param suffix suffix of template files
+     * @return bundle
+     * @throws IOException if failed to read templates
+     */
+    public AstBundle precompile(File dir, String suffix) throws IOException {
+        final Path root = dir.toPath();
+        final List<String> names;
+        try (Stream<Path> paths = Files.walk(root)) {
+            names = paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .map(path -> '/' + root.relativize(path).toString().replace(File.separatorChar, '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        final AstBundle bundle = AstBundle.create(engine);
+        for (String name : names) {
+            precompile(bundle, name);
+        }
+        return bundle;
+    }
+
+    /**
+     * Parse template and add to the bundle.
+     * <p>
+     * NOTICE: Parse errors are thrown, templates are expected to be valid at build time.
+     *
+     * @param bundle bundle
+     * @param name   template name
+     */
+    public void precompile(AstBundle bundle, String name) {
+        try {
+            if (!bundle.add(engine.getTemplate(name))) {
+                engine.getLogger().info("Skipped template holds non-serializable nodes: {}", name);
+            }
+        } catch (ParseException e) {
+            throw new ParseException("Failed to precompile template: " + name, e);
+        } catch (ResourceNotFoundException e) {
+            throw new IllegalStateException("Template is not found by engine loader: " + name, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
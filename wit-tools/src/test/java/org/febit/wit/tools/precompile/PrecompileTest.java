@@ -0,0 +1,38 @@
+// Copyright (c) 2013-present, febit.org. All Rights Reserved.
+package org.febit.wit.tools.precompile;
+
+import org.febit.wit.Engine;
+import org.febit.wit.Template;
+import org.febit.wit.Vars;
+import org.febit.wit.cache.impl.BundleAstCache;
+import org.febit.wit.exceptions.ResourceNotFoundException;
+import org.febit.wit.util.ClassUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test templates are precompiled by 'wit-precompile.gradle' at build time.
+ *
+ * @author zqq90
+ */
+class PrecompileTest {
+
+    @Test
+    void bundled() throws ResourceNotFoundException {
+        assertNotNull(ClassUtil.getDefaultClassLoader().getResource(BundleAstCache.DEFAULT_PATH),
+                "bundle not found, templates should be precompiled before tests");
+
+        Engine engine = Engine.create("/wit-precompile-test.wim");
+        assertTrue(engine.getAstCache() instanceof BundleAstCache);
+
+        Template template = engine.getTemplate("/hello.wit");
+        assertNotNull(engine.getAstCache().get(template));
+        assertNotNull(engine.getAstCache().get(engine.getTemplate("/lib/format.wit")));
+
+        assertEquals("Hello wit!\n", template.mergeToString(Vars.EMPTY));
+        assertEquals("Hello febit!\n", template.mergeToString(Vars.of("name", "febit")));
+    }
+}